@@ -5,6 +5,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
@@ -12,15 +13,19 @@ import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
 import ru.practicum.shareit.booking.exception.BookerNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingLockTimeoutException;
 import ru.practicum.shareit.booking.exception.BookingNotAvailableException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.exception.ForbiddenBookingException;
 import ru.practicum.shareit.booking.exception.WrongBookerException;
 import ru.practicum.shareit.booking.exception.WrongBookingDateException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
 import ru.practicum.shareit.booking.exception.WrongBookingStatusException;
+import ru.practicum.shareit.common.WrongCursorException;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.exceptions.WrongCommentDateException;
 import ru.practicum.shareit.item.exceptions.WrongOwnerIdException;
+import ru.practicum.shareit.item.exceptions.WrongSearchPeriodException;
 import ru.practicum.shareit.request.exception.ItemRequestNotFound;
 import ru.practicum.shareit.request.exception.RequesterNotFound;
 import ru.practicum.shareit.user.exceptions.ConflictUserEmailException;
@@ -44,11 +49,17 @@ public class ExceptionControllerAdvice extends ResponseEntityExceptionHandler {
         return new ResponseEntity<>(bodyOfResponse, HttpStatus.FORBIDDEN);
     }
 
-    @ExceptionHandler(value = ConflictUserEmailException.class)
+    @ExceptionHandler(value = {ConflictUserEmailException.class, BookingOverlapException.class,
+            ObjectOptimisticLockingFailureException.class})
     protected ResponseEntity<Object> handleConflict(RuntimeException ex, WebRequest request) {
         return new ResponseEntity<>(ex.getMessage(), HttpStatus.CONFLICT);
     }
 
+    @ExceptionHandler(value = {BookingLockTimeoutException.class})
+    protected ResponseEntity<Object> handleUnavailable(RuntimeException ex, WebRequest request) {
+        return new ResponseEntity<>(ex.getMessage(), HttpStatus.SERVICE_UNAVAILABLE);
+    }
+
     @ExceptionHandler(value = {MethodArgumentTypeMismatchException.class})
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ResponseEntity<Object> handleMethodArgumentTypeMismatchException(final RuntimeException e) {
@@ -71,7 +82,9 @@ public class ExceptionControllerAdvice extends ResponseEntityExceptionHandler {
                     BookingNotAvailableException.class,
                     WrongBookingDateException.class,
                     WrongBookingStatusException.class,
-                    WrongCommentDateException.class
+                    WrongCommentDateException.class,
+                    WrongCursorException.class,
+                    WrongSearchPeriodException.class
             }
     )
     protected ResponseEntity<Object> customBadRequest(RuntimeException ex, WebRequest request) {
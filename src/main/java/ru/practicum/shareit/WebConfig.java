@@ -0,0 +1,24 @@
+package ru.practicum.shareit;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import ru.practicum.shareit.user.principal.SharerUserArgumentResolver;
+
+import java.util.List;
+
+@Configuration
+public class WebConfig implements WebMvcConfigurer {
+    private final SharerUserArgumentResolver sharerUserArgumentResolver;
+
+    @Autowired
+    public WebConfig(SharerUserArgumentResolver sharerUserArgumentResolver) {
+        this.sharerUserArgumentResolver = sharerUserArgumentResolver;
+    }
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(sharerUserArgumentResolver);
+    }
+}
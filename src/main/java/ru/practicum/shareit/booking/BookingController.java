@@ -2,33 +2,43 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BulkDecisionDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
+import ru.practicum.shareit.booking.exception.WrongBookingDateException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.user.principal.SharerUserId;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping(path = "/bookings")
 @Validated
 public class BookingController {
-    public static final String USER_ID = "X-Sharer-User-Id";
+    public static final String NEXT_CURSOR = SeekCursor.NEXT_CURSOR;
     private final BookingService bookingService;
     private final BookingMapper bookingMapper;
 
@@ -39,43 +49,102 @@ public class BookingController {
     }
 
     @PostMapping
-    public BookingDto create(@RequestHeader(USER_ID) long bookerId, @Valid @RequestBody CreateBookingDto bookingDto) {
+    public BookingDto create(@SharerUserId long bookerId, @Valid @RequestBody CreateBookingDto bookingDto) {
         final Booking booking = bookingMapper.fromCreate(bookerId, bookingDto);
         return bookingMapper.toDto(bookingService.create(booking));
     }
 
     @PatchMapping("/{bookingId}")
-    public BookingDto approve(@RequestHeader(USER_ID) long ownerId, @PathVariable @Positive long bookingId,
+    public BookingDto approve(@SharerUserId long ownerId, @PathVariable @Positive long bookingId,
                               @RequestParam(name = "approved") boolean approved) {
         return bookingMapper.toDto(bookingService.approve(ownerId, bookingId, approved));
     }
 
+    @PatchMapping("/bulk")
+    public List<BookingDecisionDto> approveAll(@SharerUserId long ownerId, @Valid @RequestBody BulkDecisionDto decision) {
+        return bookingService.approveAll(ownerId, decision.getBookingIds(), decision.getApproved())
+                .stream()
+                .map(bookingMapper::toDecisionDto)
+                .collect(Collectors.toList());
+    }
+
     @GetMapping("/{bookingId}")
-    public BookingDto get(@RequestHeader(USER_ID) long userId, @PathVariable @Positive long bookingId) {
+    public BookingDto get(@SharerUserId long userId, @PathVariable @Positive long bookingId) {
         return bookingMapper.toDto(bookingService.get(userId, bookingId));
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBooker(@RequestHeader(USER_ID) long bookerId,
-                                           @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                           @RequestParam(defaultValue = "10") @Positive int size,
-                                           @RequestParam(name = "state", defaultValue = "ALL")
-                                           BookingState bookingState) {
-        return bookingService.getAllByBooker(bookerId, bookingState, PageRequest.of(from / size, size))
-                .stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookingDto>> getAllByBooker(
+            @SharerUserId long bookerId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(name = "state", defaultValue = "ALL") BookingState bookingState,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(name = "status", required = false) Set<BookingStatus> statuses,
+            @RequestParam(required = false) String cursor
+    ) {
+        final BookingFilter filter = filter(bookingState, itemId, start, end, statuses);
+        final List<Booking> bookings = cursor == null ?
+                bookingService.getAllByBooker(bookerId, filter, PageRequest.of(from / size, size)) :
+                bookingService.getAllByBooker(bookerId, filter, decodeCursor(cursor), size);
+        return toPage(bookings, size);
     }
 
     @GetMapping("/owner")
-    public List<BookingDto> getAllByOwner(@RequestHeader(USER_ID) long ownerId,
-                                          @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-                                          @RequestParam(defaultValue = "10") @Positive int size,
-                                          @RequestParam(name = "state", defaultValue = "ALL")
-                                          BookingState bookingState) {
-        return bookingService.getAllByOwner(ownerId, bookingState, PageRequest.of(from / size, size))
-                .stream()
-                .map(bookingMapper::toDto)
-                .collect(Collectors.toList());
+    public ResponseEntity<List<BookingDto>> getAllByOwner(
+            @SharerUserId long ownerId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(name = "state", defaultValue = "ALL") BookingState bookingState,
+            @RequestParam(required = false) @Positive Long itemId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end,
+            @RequestParam(name = "status", required = false) Set<BookingStatus> statuses,
+            @RequestParam(required = false) String cursor
+    ) {
+        final BookingFilter filter = filter(bookingState, itemId, start, end, statuses);
+        final List<Booking> bookings = cursor == null ?
+                bookingService.getAllByOwner(ownerId, filter, PageRequest.of(from / size, size)) :
+                bookingService.getAllByOwner(ownerId, filter, decodeCursor(cursor), size);
+        return toPage(bookings, size);
+    }
+
+    /**
+     * The period keeps bookings overlapping it; either of its bounds may be left open.
+     */
+    private BookingFilter filter(BookingState state, Long itemId, LocalDateTime start, LocalDateTime end,
+                                 Set<BookingStatus> statuses) {
+        if (start != null && end != null && !start.isBefore(end)) {
+            throw new WrongBookingDateException("Начало периода должно быть раньше его окончания");
+        }
+        return BookingFilter.builder()
+                .state(state)
+                .itemId(itemId)
+                .start(start)
+                .end(end)
+                .statuses(statuses)
+                .build();
+    }
+
+    /**
+     * An empty cursor starts a cursor listing from the newest booking.
+     */
+    private SeekCursor decodeCursor(String cursor) {
+        return cursor.isEmpty() ? null : SeekCursor.decode(cursor);
+    }
+
+    private ResponseEntity<List<BookingDto>> toPage(List<Booking> bookings, int size) {
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (bookings.size() == size) {
+            final Booking last = bookings.get(size - 1);
+            response.header(NEXT_CURSOR, new SeekCursor(last.getStart(), last.getId()).encode());
+        }
+        return response.body(
+                bookings.stream()
+                        .map(bookingMapper::toDto)
+                        .collect(Collectors.toList())
+        );
     }
 }
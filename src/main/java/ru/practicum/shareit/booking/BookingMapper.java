@@ -2,10 +2,12 @@ package ru.practicum.shareit.booking;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.exception.WrongBookingDateException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecision;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserMapper;
@@ -50,4 +52,11 @@ public class BookingMapper {
                 .start(booking.getStart())
                 .build();
     }
+
+    public BookingDecisionDto toDecisionDto(BookingDecision decision) {
+        return BookingDecisionDto.builder()
+                .bookingId(decision.getBookingId())
+                .outcome(decision.getOutcome())
+                .build();
+    }
 }
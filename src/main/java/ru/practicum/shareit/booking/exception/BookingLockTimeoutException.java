@@ -0,0 +1,7 @@
+package ru.practicum.shareit.booking.exception;
+
+public class BookingLockTimeoutException extends RuntimeException {
+    public BookingLockTimeoutException(String message) {
+        super(message);
+    }
+}
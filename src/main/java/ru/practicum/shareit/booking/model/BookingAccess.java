@@ -0,0 +1,35 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.model.User;
+
+import java.time.LocalDateTime;
+
+/**
+ * Booking columns needed to authorize access to it and check its status, without item and user entities.
+ */
+@Value
+public class BookingAccess {
+    long id;
+    long bookerId;
+    long ownerId;
+    BookingStatus status;
+    long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+
+    /**
+     * Detached booking with references to its item and booker, enough for the interval index.
+     */
+    public Booking toBooking() {
+        return Booking.builder()
+                .id(id)
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(itemId).owner(User.builder().id(ownerId).build()).build())
+                .booker(User.builder().id(bookerId).build())
+                .status(status)
+                .build();
+    }
+}
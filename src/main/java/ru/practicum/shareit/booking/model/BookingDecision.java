@@ -0,0 +1,20 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+
+/**
+ * Outcome of an owner's decision on one booking of a bulk request.
+ */
+@Value
+public class BookingDecision {
+    long bookingId;
+    Outcome outcome;
+
+    public enum Outcome {
+        APPROVED,
+        REJECTED,
+        NOT_FOUND,
+        FORBIDDEN,
+        ALREADY_DECIDED
+    }
+}
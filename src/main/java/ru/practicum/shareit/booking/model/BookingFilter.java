@@ -0,0 +1,26 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDateTime;
+import java.util.Set;
+
+/**
+ * Conditions of a booking listing on top of its booker or owner. Empty fields do not restrict the listing;
+ * {@code start} and {@code end} keep bookings overlapping the period, either bound may be open.
+ */
+@Value
+@Builder
+public class BookingFilter {
+    @Builder.Default
+    BookingState state = BookingState.ALL;
+    Long itemId;
+    LocalDateTime start;
+    LocalDateTime end;
+    Set<BookingStatus> statuses;
+
+    public static BookingFilter of(BookingState state) {
+        return builder().state(state).build();
+    }
+}
@@ -0,0 +1,14 @@
+package ru.practicum.shareit.booking.model;
+
+import lombok.Value;
+
+/**
+ * Last started and next upcoming non-rejected bookings of an item, either may be null.
+ */
+@Value
+public class NearestBookings {
+    public static final NearestBookings EMPTY = new NearestBookings(null, null);
+
+    Booking last;
+    Booking next;
+}
@@ -1,37 +1,83 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingAccess;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingCount;
 
+import javax.persistence.LockModeType;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
+public interface BookingRepository extends JpaRepository<Booking, Long>, BookingSearchRepository {
+    String SELECT_ACCESS = "select new ru.practicum.shareit.booking.model.BookingAccess("
+            + "b.id, b.booker.id, i.owner.id, b.status, i.id, b.start, b.end) from Booking b join b.item i";
 
-    List<Booking> findAllByBookerIdOrderByStartDesc(long bookerId, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(long bookerId, LocalDateTime start, LocalDateTime end, PageRequest pageRequest);
-
-    List<Booking> findAllByBookerIdAndEndIsBeforeOrderByStartDesc(long bookerId, LocalDateTime end, PageRequest pageRequest);
+    Optional<Booking> findFirstByBookerIdAndItemIdOrderByStart(long bookerId, long itemId);
 
-    List<Booking> findAllByBookerIdAndStartIsAfterOrderByStartDesc(long bookerId, LocalDateTime start, PageRequest pageRequest);
+    @EntityGraph(attributePaths = {"item", "booker"})
+    Optional<Booking> findWithItemAndBookerById(long id);
 
-    List<Booking> findAllByBookerIdAndStatusIsOrderByStartDesc(long bookerId, BookingStatus status, PageRequest pageRequest);
+    @Query(SELECT_ACCESS + " where b.id = :id")
+    Optional<BookingAccess> findAccessById(@Param("id") long id);
 
-    List<Booking> findAllByItemOwnerIdOrderByStartDesc(long ownerId, PageRequest pageRequest);
+    /**
+     * Locks in id order, so concurrent bulk decisions on overlapping bookings cannot deadlock.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query(SELECT_ACCESS + " where b.id in :ids order by b.id")
+    List<BookingAccess> findAccessForUpdateByIdIn(@Param("ids") Collection<Long> ids);
 
-    List<Booking> findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(long ownerId, LocalDateTime start, LocalDateTime end, PageRequest pageRequest);
+    /**
+     * Moves the booking from the expected status if the user owns its item, in a single statement.
+     *
+     * @return {@code 1} if the status was changed, {@code 0} if the booking is missing, foreign or already decided
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1"
+            + " where b.id = :id and b.status = :expected"
+            + " and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatus(@Param("id") long id, @Param("ownerId") long ownerId,
+                     @Param("expected") BookingStatus expected, @Param("status") BookingStatus status);
 
-    List<Booking> findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(long ownerId, LocalDateTime end, PageRequest pageRequest);
+    /**
+     * Batched form of {@link #updateStatus}.
+     *
+     * @return the number of bookings changed
+     */
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Booking b set b.status = :status, b.version = b.version + 1"
+            + " where b.id in :ids and b.status = :expected"
+            + " and b.item.id in (select i.id from Item i where i.owner.id = :ownerId)")
+    int updateStatusAll(@Param("ids") Collection<Long> ids, @Param("ownerId") long ownerId,
+                        @Param("expected") BookingStatus expected, @Param("status") BookingStatus status);
 
-    List<Booking> findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(long ownerId, LocalDateTime start, PageRequest pageRequest);
+    @Query("select b from Booking b join fetch b.booker where b.item.id in :itemIds and b.status <> :excluded and ("
+            + "(b.start < :now and b.end = (select max(l.end) from Booking l"
+            + " where l.item = b.item and l.status <> :excluded and l.start < :now))"
+            + " or (b.start > :now and b.start = (select min(n.start) from Booking n"
+            + " where n.item = b.item and n.status <> :excluded and n.start > :now)))")
+    List<Booking> findNearestByItemIds(@Param("itemIds") Collection<Long> itemIds, @Param("now") LocalDateTime now,
+                                       @Param("excluded") BookingStatus excluded);
 
-    List<Booking> findAllByItemOwnerIdAndStatusIsOrderByStartDesc(long ownerId, BookingStatus status, PageRequest pageRequest);
+    List<Booking> findAllByItemIdAndStatusIn(long itemId, Collection<BookingStatus> statuses);
 
-    Optional<Booking> findFirstByBookerIdAndItemIdOrderByStart(long bookerId, long itemId);
+    @Query("select distinct b.item.id from Booking b where b.item.id in :itemIds and b.status in :statuses"
+            + " and b.start < :end and b.end > :start")
+    Set<Long> findBusyItemIds(@Param("itemIds") Collection<Long> itemIds,
+                              @Param("statuses") Collection<BookingStatus> statuses,
+                              @Param("start") LocalDateTime start, @Param("end") LocalDateTime end);
 
-    List<Booking> findAllByItemId(long itemId);
+    @Query("select b.item.id as itemId, count(b) as bookings from Booking b where b.status = :status"
+            + " group by b.item.id")
+    List<ItemBookingCount> countByStatusGroupByItem(@Param("status") BookingStatus status);
 }
@@ -0,0 +1,21 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.common.SeekCursor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Booking listings built from a {@link BookingFilter}, ordered by start desc, id desc, with item and booker fetched.
+ * A cursor continues the listing after its booking, {@code null} starts from the newest one.
+ */
+public interface BookingSearchRepository {
+    List<Booking> findAllByBooker(long bookerId, BookingFilter filter, LocalDateTime now,
+                                  SeekCursor cursor, Pageable pageable);
+
+    List<Booking> findAllByOwner(long ownerId, BookingFilter filter, LocalDateTime now,
+                                 SeekCursor cursor, Pageable pageable);
+}
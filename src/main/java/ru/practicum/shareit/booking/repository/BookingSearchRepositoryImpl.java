@@ -0,0 +1,108 @@
+package ru.practicum.shareit.booking.repository;
+
+import org.springframework.data.domain.Pageable;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.model.Item;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Criteria query over bookings of a booker, or of an owner's items found through items_owner_idx. The booker
+ * or item column leads a bookings index followed by status or by (start_date desc, id desc), so state,
+ * status and cursor conditions are index ranges and a page is read in index order instead of sorted.
+ */
+public class BookingSearchRepositoryImpl implements BookingSearchRepository {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<Booking> findAllByBooker(long bookerId, BookingFilter filter, LocalDateTime now,
+                                         SeekCursor cursor, Pageable pageable) {
+        return find(false, bookerId, filter, now, cursor, pageable);
+    }
+
+    @Override
+    public List<Booking> findAllByOwner(long ownerId, BookingFilter filter, LocalDateTime now,
+                                        SeekCursor cursor, Pageable pageable) {
+        return find(true, ownerId, filter, now, cursor, pageable);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Booking> find(boolean byOwner, long userId, BookingFilter filter, LocalDateTime now,
+                               SeekCursor cursor, Pageable pageable) {
+        final CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        final CriteriaQuery<Booking> query = cb.createQuery(Booking.class);
+        final Root<Booking> booking = query.from(Booking.class);
+        final Join<Booking, Item> item = (Join<Booking, Item>) booking.<Booking, Item>fetch("item");
+        booking.fetch("booker");
+        final Path<LocalDateTime> start = booking.get("start");
+        final Path<LocalDateTime> end = booking.get("end");
+        final Path<Long> id = booking.get("id");
+        final Path<BookingStatus> status = booking.get("status");
+
+        final List<Predicate> where = new ArrayList<>();
+        where.add(byOwner ?
+                cb.equal(item.get("owner").get("id"), userId) :
+                cb.equal(booking.get("booker").get("id"), userId));
+        switch (filter.getState()) {
+            case ALL:
+                break;
+            case CURRENT:
+                where.add(cb.lessThan(start, now));
+                where.add(cb.greaterThan(end, now));
+                break;
+            case PAST:
+                where.add(cb.lessThan(end, now));
+                break;
+            case FUTURE:
+                where.add(cb.greaterThan(start, now));
+                break;
+            case WAITING:
+                where.add(cb.equal(status, BookingStatus.WAITING));
+                break;
+            case REJECTED:
+                where.add(cb.equal(status, BookingStatus.REJECTED));
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported booking state " + filter.getState());
+        }
+        if (filter.getItemId() != null) {
+            where.add(cb.equal(booking.get("item").get("id"), filter.getItemId()));
+        }
+        if (filter.getStart() != null) {
+            where.add(cb.greaterThan(end, filter.getStart()));
+        }
+        if (filter.getEnd() != null) {
+            where.add(cb.lessThan(start, filter.getEnd()));
+        }
+        if (filter.getStatuses() != null && !filter.getStatuses().isEmpty()) {
+            where.add(status.in(filter.getStatuses()));
+        }
+        if (cursor != null) {
+            where.add(cb.or(
+                    cb.lessThan(start, cursor.getTimestamp()),
+                    cb.and(cb.equal(start, cursor.getTimestamp()), cb.lessThan(id, cursor.getId()))
+            ));
+        }
+        query.select(booking)
+                .where(where.toArray(new Predicate[0]))
+                .orderBy(cb.desc(start), cb.desc(id));
+        return entityManager.createQuery(query)
+                .setFirstResult((int) pageable.getOffset())
+                .setMaxResults(pageable.getPageSize())
+                .getResultList();
+    }
+}
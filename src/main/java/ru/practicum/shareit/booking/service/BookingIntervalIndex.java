@@ -0,0 +1,183 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Per-item index of active (WAITING or APPROVED) bookings ordered by start.
+ * An overlap check walks back from the end of the probed interval over the bookings that start less than
+ * the longest booking of the item before its start; rows loaded from the database may overlap each other,
+ * so it cannot stop at the nearest one. For bookings created by this service that is O(log n).
+ * Timelines are loaded from the database on first access to an item. At most {@code maxItems}
+ * timelines are kept; beyond that the least recently used ones are dropped and reloaded when needed.
+ * <p>
+ * Free item lookups check loaded timelines in memory. Items without a loaded timeline are checked
+ * by the database in batches and are not loaded, so a search does not fill the index.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=Index,name=bookingIntervals")
+public class BookingIntervalIndex {
+    static final Set<BookingStatus> ACTIVE_STATUSES = EnumSet.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final int LOAD_BATCH_SIZE = 500;
+
+    private final BookingRepository bookingRepository;
+    private final int maxItems;
+    private final ConcurrentMap<Long, ItemTimeline> timelines = new ConcurrentHashMap<>();
+    private final AtomicLong clock = new AtomicLong();
+
+    @Autowired
+    public BookingIntervalIndex(BookingRepository bookingRepository,
+                                @Value("${shareit.booking-index.max-items:10000}") int maxItems) {
+        this.bookingRepository = bookingRepository;
+        this.maxItems = maxItems;
+    }
+
+    public boolean hasOverlap(long itemId, LocalDateTime start, LocalDateTime end) {
+        return timeline(itemId).hasOverlap(start, end);
+    }
+
+    /**
+     * Ids of the given items without active bookings overlapping the interval.
+     */
+    public Set<Long> findFree(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        final Set<Long> free = new HashSet<>();
+        final List<Long> unloaded = new ArrayList<>();
+        for (Long itemId : new LinkedHashSet<>(itemIds)) {
+            final ItemTimeline timeline = timelines.get(itemId);
+            if (timeline == null) {
+                unloaded.add(itemId);
+            } else if (!timeline.hasOverlap(start, end)) {
+                free.add(itemId);
+            }
+        }
+        for (int from = 0; from < unloaded.size(); from += LOAD_BATCH_SIZE) {
+            final List<Long> batch = unloaded.subList(from, Math.min(from + LOAD_BATCH_SIZE, unloaded.size()));
+            final Set<Long> busy = bookingRepository.findBusyItemIds(batch, ACTIVE_STATUSES, start, end);
+            batch.stream().filter(itemId -> !busy.contains(itemId)).forEach(free::add);
+        }
+        return free;
+    }
+
+    public void add(Booking booking) {
+        if (ACTIVE_STATUSES.contains(booking.getStatus())) {
+            timeline(booking.getItem().getId()).add(Interval.of(booking));
+        }
+    }
+
+    /**
+     * Runs on the map entry, so it waits for a timeline being loaded and cannot be overwritten by a stale load.
+     */
+    public void remove(Booking booking) {
+        timelines.computeIfPresent(booking.getItem().getId(), (itemId, timeline) -> {
+            timeline.remove(Interval.of(booking));
+            return timeline;
+        });
+    }
+
+    @ManagedAttribute
+    public int getSize() {
+        return timelines.size();
+    }
+
+    private ItemTimeline timeline(long itemId) {
+        final ItemTimeline timeline = timelines.computeIfAbsent(itemId, this::load);
+        timeline.lastUsed = clock.incrementAndGet();
+        if (timelines.size() > maxItems) {
+            evict();
+        }
+        return timeline;
+    }
+
+    /**
+     * Drops the least recently used timelines until a tenth of the capacity is free. A dropped timeline
+     * is reloaded from committed bookings, so a change applied to it while it was being dropped is not lost.
+     */
+    private synchronized void evict() {
+        final int excess = timelines.size() - (maxItems - maxItems / 10);
+        if (excess > 0) {
+            timelines.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().lastUsed))
+                    .limit(excess)
+                    .collect(Collectors.toList())
+                    .forEach(entry -> timelines.remove(entry.getKey(), entry.getValue()));
+        }
+    }
+
+    private ItemTimeline load(long itemId) {
+        final ItemTimeline timeline = new ItemTimeline();
+        bookingRepository.findAllByItemIdAndStatusIn(itemId, ACTIVE_STATUSES)
+                .forEach(booking -> timeline.add(Interval.of(booking)));
+        return timeline;
+    }
+
+    static final class ItemTimeline {
+        private final NavigableSet<Interval> intervals = new TreeSet<>(
+                Comparator.comparing(Interval::getStart).thenComparingLong(Interval::getId)
+        );
+        private Duration longest = Duration.ZERO;
+        private volatile long lastUsed;
+
+        synchronized boolean hasOverlap(LocalDateTime start, LocalDateTime end) {
+            final LocalDateTime earliest = start.minus(longest);
+            final NavigableSet<Interval> candidates = intervals.subSet(
+                    new Interval(Long.MIN_VALUE, earliest, earliest), true, new Interval(Long.MIN_VALUE, end, end), false
+            );
+            for (Interval interval : candidates.descendingSet()) {
+                if (interval.getEnd().isAfter(start)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        /**
+         * The longest duration is not lowered on removal; a stale bound only widens the walk.
+         */
+        synchronized void add(Interval interval) {
+            if (intervals.add(interval)) {
+                final Duration duration = Duration.between(interval.getStart(), interval.getEnd());
+                if (duration.compareTo(longest) > 0) {
+                    longest = duration;
+                }
+            }
+        }
+
+        synchronized void remove(Interval interval) {
+            intervals.remove(interval);
+        }
+    }
+
+    @lombok.Value
+    static class Interval {
+        long id;
+        LocalDateTime start;
+        LocalDateTime end;
+
+        static Interval of(Booking booking) {
+            return new Interval(booking.getId(), booking.getStart(), booking.getEnd());
+        }
+    }
+}
@@ -2,23 +2,50 @@ package ru.practicum.shareit.booking.service;
 
 import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingDecision;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.model.NearestBookings;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.model.Item;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 public interface BookingService {
     Booking create(Booking booking);
 
     Booking approve(long ownerId, long bookingId, boolean approved);
 
+    /**
+     * Applies one decision to many bookings at once, by the same rules as {@link #approve}.
+     * Bookings that cannot be decided are reported and do not stop the others.
+     *
+     * @return outcomes in the order of the distinct ids
+     */
+    List<BookingDecision> approveAll(long ownerId, Collection<Long> bookingIds, boolean approved);
+
     Booking get(long userId, long bookingId);
 
-    List<Booking> getAllByBooker(long bookerId, BookingState bookingState, PageRequest pageRequest);
+    /**
+     * Offset page of the booker's bookings matching the filter, newest start first.
+     */
+    List<Booking> getAllByBooker(long bookerId, BookingFilter filter, PageRequest pageRequest);
+
+    List<Booking> getAllByOwner(long ownerId, BookingFilter filter, PageRequest pageRequest);
 
-    List<Booking> getAllByOwner(long ownerId, BookingState bookingState, PageRequest pageRequest);
+    /**
+     * Same listing continued after the cursor, or from the newest booking when the cursor is {@code null}.
+     */
+    List<Booking> getAllByBooker(long bookerId, BookingFilter filter, SeekCursor cursor, int size);
+
+    List<Booking> getAllByOwner(long ownerId, BookingFilter filter, SeekCursor cursor, int size);
 
     Booking getBooking(Item item, long bookerId);
 
-    List<Booking> getBookingForItem(Item item);
+    Map<Long, NearestBookings> getNearestBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    Set<Long> findFreeItems(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end);
 }
@@ -3,149 +3,240 @@ package ru.practicum.shareit.booking.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Lazy;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.exception.BookerNotFoundException;
 import ru.practicum.shareit.booking.exception.BookingNotAvailableException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.exception.ForbiddenBookingException;
 import ru.practicum.shareit.booking.exception.WrongBookerException;
 import ru.practicum.shareit.booking.exception.WrongBookingStatusException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingAccess;
+import ru.practicum.shareit.booking.model.BookingDecision;
+import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.NearestBookings;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.common.TransactionHooks;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class BookingServiceImpl implements BookingService {
     private final BookingRepository bookingRepository;
     private final ItemService itemService;
     private final UserService userService;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemBookingLocks itemBookingLocks;
+    private final TransactionTemplate transactionTemplate;
 
     @Autowired
-    public BookingServiceImpl(BookingRepository bookingRepository, @Lazy ItemService itemService, UserService userService) {
+    public BookingServiceImpl(BookingRepository bookingRepository, @Lazy ItemService itemService, UserService userService,
+                              BookingIntervalIndex bookingIntervalIndex, ItemBookingLocks itemBookingLocks,
+                              TransactionTemplate transactionTemplate) {
         this.bookingRepository = bookingRepository;
         this.itemService = itemService;
         this.userService = userService;
+        this.bookingIntervalIndex = bookingIntervalIndex;
+        this.itemBookingLocks = itemBookingLocks;
+        this.transactionTemplate = transactionTemplate;
     }
 
+    /**
+     * The overlap check and the insert run under the lock of the item, and the lock is released only after
+     * the transaction has committed and the interval index has been updated, so bookings of one item
+     * cannot slip past each other's check.
+     */
     @Override
-    @Transactional
     public Booking create(Booking booking) {
-        final Item item = itemService.getItem(booking.getItem().getId());
+        final ItemSnapshot item = itemService.getSnapshot(booking.getItem().getId());
         if (!item.getAvailable()) {
             throw new BookingNotAvailableException("Вещь не доступна для бронирования");
         }
-        if (item.getOwner().getId() == booking.getBooker().getId()) {
+        if (item.getOwnerId() == booking.getBooker().getId()) {
             throw new WrongBookerException("Владелец не может забронировать свою вещь");
         }
-        final User booker = userService.getUser(booking.getBooker().getId());
-        booking.setItem(item);
-        booking.setBooker(booker);
-        booking.setStatus(BookingStatus.WAITING);
-        return bookingRepository.save(booking);
+        return itemBookingLocks.withLock(item.getId(), () -> transactionTemplate.execute(status -> {
+            if (bookingIntervalIndex.hasOverlap(item.getId(), booking.getStart(), booking.getEnd())) {
+                throw new BookingOverlapException(
+                        String.format("Вещь %s уже забронирована на период с %s по %s", item.getId(), booking.getStart(),
+                                booking.getEnd())
+                );
+            }
+            final User booker = userService.getUser(booking.getBooker().getId());
+            booking.setItem(item.toItem());
+            booking.setBooker(booker);
+            booking.setStatus(BookingStatus.WAITING);
+            final Booking saved = bookingRepository.save(booking);
+            TransactionHooks.afterCommit(() -> bookingIntervalIndex.add(saved));
+            return saved;
+        }));
     }
 
-    private Booking getById(long bookingId) {
-        return bookingRepository.findById(bookingId)
+    private BookingAccess getAccess(long bookingId) {
+        return bookingRepository.findAccessById(bookingId)
                 .orElseThrow(() -> new BookingNotFoundException(String.format("Не найдено бронирование с id %s", bookingId)));
     }
 
+    private Booking getWithItemAndBooker(long bookingId) {
+        return bookingRepository.findWithItemAndBookerById(bookingId)
+                .orElseThrow(() -> new BookingNotFoundException(String.format("Не найдено бронирование с id %s", bookingId)));
+    }
+
+    /**
+     * The decision is a conditional update, so of concurrent decisions on a booking exactly one wins.
+     * The booking is loaded only to answer; a refused decision is explained from its access columns.
+     */
     @Override
     @Transactional
     public Booking approve(long ownerId, long bookingId, boolean approved) {
-        final Booking booking = getById(bookingId);
-        if (booking.getItem().getOwner().getId() != ownerId) {
-            throw new ForbiddenBookingException("Только владелец может разрешить/запретить бронировани");
+        final BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        if (bookingRepository.updateStatus(bookingId, ownerId, BookingStatus.WAITING, status) == 0) {
+            throw approveFailure(ownerId, getAccess(bookingId));
+        }
+        final Booking saved = getWithItemAndBooker(bookingId);
+        if (approved) {
+            TransactionHooks.afterCommit(() -> itemService.recordApprovedBooking(saved.getItem().getId()));
+        } else {
+            TransactionHooks.afterCommit(() -> bookingIntervalIndex.remove(saved));
+        }
+        return saved;
+    }
+
+    /**
+     * Bookings are locked as their access columns are read, so the update below changes every booking found decidable.
+     */
+    @Override
+    @Transactional
+    public List<BookingDecision> approveAll(long ownerId, Collection<Long> bookingIds, boolean approved) {
+        final Map<Long, BookingAccess> bookings = bookingRepository.findAccessForUpdateByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingAccess::getId, Function.identity()));
+        final BookingDecision.Outcome applied = approved ? BookingDecision.Outcome.APPROVED : BookingDecision.Outcome.REJECTED;
+        final List<BookingDecision> decisions = new ArrayList<>();
+        final List<BookingAccess> decided = new ArrayList<>();
+        for (Long bookingId : new LinkedHashSet<>(bookingIds)) {
+            final BookingAccess booking = bookings.get(bookingId);
+            final BookingDecision.Outcome refusal = refusal(ownerId, booking);
+            if (refusal == null) {
+                decided.add(booking);
+            }
+            decisions.add(new BookingDecision(bookingId, refusal == null ? applied : refusal));
+        }
+        if (decided.isEmpty()) {
+            return decisions;
+        }
+        final List<Long> decidedIds = decided.stream().map(BookingAccess::getId).collect(Collectors.toList());
+        final BookingStatus status = approved ? BookingStatus.APPROVED : BookingStatus.REJECTED;
+        bookingRepository.updateStatusAll(decidedIds, ownerId, BookingStatus.WAITING, status);
+        if (approved) {
+            TransactionHooks.afterCommit(() -> decided.forEach(booking -> itemService.recordApprovedBooking(booking.getItemId())));
+        } else {
+            TransactionHooks.afterCommit(() -> decided.forEach(booking -> bookingIntervalIndex.remove(booking.toBooking())));
+        }
+        return decisions;
+    }
+
+    private static RuntimeException approveFailure(long ownerId, BookingAccess booking) {
+        if (refusal(ownerId, booking) == BookingDecision.Outcome.FORBIDDEN) {
+            return new ForbiddenBookingException("Только владелец может разрешить/запретить бронировани");
+        }
+        return new WrongBookingStatusException("Бронирование уже разрешено, запрещено или отменено");
+    }
+
+    /**
+     * Why the owner may not decide on the booking, or {@code null} if they may.
+     */
+    private static BookingDecision.Outcome refusal(long ownerId, BookingAccess booking) {
+        if (booking == null) {
+            return BookingDecision.Outcome.NOT_FOUND;
+        }
+        if (booking.getOwnerId() != ownerId) {
+            return BookingDecision.Outcome.FORBIDDEN;
         }
         if (booking.getStatus() != BookingStatus.WAITING) {
-            throw new WrongBookingStatusException("Бронирование уже разрешено, запрещено или отменено");
+            return BookingDecision.Outcome.ALREADY_DECIDED;
         }
-        booking.setStatus(approved ? BookingStatus.APPROVED : BookingStatus.REJECTED);
-        return bookingRepository.save(booking);
+        return null;
     }
 
+    /**
+     * Access is checked on the access columns, the booking with its item and booker is loaded only for the caller.
+     */
     @Override
     @Transactional(readOnly = true)
     public Booking get(long userId, long bookingId) {
-        final Booking booking = getById(bookingId);
-        if (userId != booking.getBooker().getId() && userId != booking.getItem().getOwner().getId()) {
+        final BookingAccess access = getAccess(bookingId);
+        if (userId != access.getBookerId() && userId != access.getOwnerId()) {
             throw new ForbiddenBookingException("Только владелец или арендатор может получить информацию о бронировании");
         }
-        return booking;
+        return getWithItemAndBooker(bookingId);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getAllByBooker(long bookerId, BookingState bookingState, PageRequest pageRequest) {
+    public List<Booking> getAllByBooker(long bookerId, BookingFilter filter, PageRequest pageRequest) {
+        return findByBooker(bookerId, filter, null, pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByOwner(long ownerId, BookingFilter filter, PageRequest pageRequest) {
+        return findByOwner(ownerId, filter, null, pageRequest);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByBooker(long bookerId, BookingFilter filter, SeekCursor cursor, int size) {
+        return findByBooker(bookerId, filter, cursor, PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Booking> getAllByOwner(long ownerId, BookingFilter filter, SeekCursor cursor, int size) {
+        return findByOwner(ownerId, filter, cursor, PageRequest.of(0, size));
+    }
+
+    private List<Booking> findByBooker(long bookerId, BookingFilter filter, SeekCursor cursor, Pageable pageable) {
         if (!userService.isExist(bookerId)) {
             throw new BookerNotFoundException("Арендатор не найден");
         }
-        final LocalDateTime now = LocalDateTime.now();
-        final List<Booking> result;
-        switch (bookingState) {
-            case ALL:
-                result = bookingRepository.findAllByBookerIdOrderByStartDesc(bookerId, pageRequest);
-                break;
-            case CURRENT:
-                result = bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(bookerId, now, now, pageRequest);
-                break;
-            case PAST:
-                result = bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(bookerId, now, pageRequest);
-                break;
-            case FUTURE:
-                result = bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(bookerId, now, pageRequest);
-                break;
-            case WAITING:
-                result = bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(bookerId, BookingStatus.WAITING, pageRequest);
-                break;
-            case REJECTED:
-                result = bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(bookerId, BookingStatus.REJECTED, pageRequest);
-                break;
-            default:
-                throw new RuntimeException(String.format("Неизвестное состояние бронирования %s", bookingState));
-        }
-        return result;
+        checkState(filter);
+        return bookingRepository.findAllByBooker(bookerId, filter, LocalDateTime.now(), cursor, pageable);
     }
 
-    @Override
-    @Transactional(readOnly = true)
-    public List<Booking> getAllByOwner(long ownerId, BookingState bookingState, PageRequest pageRequest) {
+    private List<Booking> findByOwner(long ownerId, BookingFilter filter, SeekCursor cursor, Pageable pageable) {
         if (!userService.isExist(ownerId)) {
             throw new BookerNotFoundException("Владелец не найден");
         }
-        final LocalDateTime now = LocalDateTime.now();
-        final List<Booking> result;
-        switch (bookingState) {
-            case ALL:
-                result = bookingRepository.findAllByItemOwnerIdOrderByStartDesc(ownerId, pageRequest);
-                break;
-            case CURRENT:
-                result = bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(ownerId, now, now, pageRequest);
-                break;
-            case PAST:
-                result = bookingRepository.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(ownerId, now, pageRequest);
-                break;
-            case FUTURE:
-                result = bookingRepository.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(ownerId, now, pageRequest);
-                break;
-            case WAITING:
-                result = bookingRepository.findAllByItemOwnerIdAndStatusIsOrderByStartDesc(ownerId, BookingStatus.WAITING, pageRequest);
-                break;
-            case REJECTED:
-                result = bookingRepository.findAllByItemOwnerIdAndStatusIsOrderByStartDesc(ownerId, BookingStatus.REJECTED, pageRequest);
-                break;
-            default:
-                throw new RuntimeException(String.format("Неизвестное состояние бронирования %s", bookingState));
+        checkState(filter);
+        return bookingRepository.findAllByOwner(ownerId, filter, LocalDateTime.now(), cursor, pageable);
+    }
+
+    private void checkState(BookingFilter filter) {
+        if (filter.getState() == BookingState.UNKNOWN) {
+            throw new RuntimeException(String.format("Неизвестное состояние бронирования %s", filter.getState()));
         }
-        return result;
     }
 
     @Override
@@ -161,7 +252,37 @@ public class BookingServiceImpl implements BookingService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Booking> getBookingForItem(Item item) {
-        return bookingRepository.findAllByItemId(item.getId());
+    public Map<Long, NearestBookings> getNearestBookings(Collection<Long> itemIds, LocalDateTime now) {
+        if (itemIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        final Map<Long, Booking> last = new HashMap<>();
+        final Map<Long, Booking> next = new HashMap<>();
+        for (Booking booking : bookingRepository.findNearestByItemIds(itemIds, now, BookingStatus.REJECTED)) {
+            if (booking.getStart().isBefore(now)) {
+                last.merge(booking.getItem().getId(), booking, BookingServiceImpl::later);
+            } else {
+                next.merge(booking.getItem().getId(), booking, BookingServiceImpl::earlier);
+            }
+        }
+        final Map<Long, NearestBookings> result = new HashMap<>();
+        for (Long itemId : itemIds) {
+            result.put(itemId, new NearestBookings(last.get(itemId), next.get(itemId)));
+        }
+        return result;
+    }
+
+    private static Booking later(Booking first, Booking second) {
+        return first.getId() > second.getId() ? first : second;
+    }
+
+    private static Booking earlier(Booking first, Booking second) {
+        return first.getId() < second.getId() ? first : second;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public Set<Long> findFreeItems(Collection<Long> itemIds, LocalDateTime start, LocalDateTime end) {
+        return bookingIntervalIndex.findFree(itemIds, start, end);
     }
 }
@@ -0,0 +1,123 @@
+package ru.practicum.shareit.booking.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.exception.BookingLockTimeoutException;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+/**
+ * Fair locks serializing booking writes per item, striped so that memory does not grow with the number of items.
+ * Items sharing a stripe wait for each other, which only costs throughput. A writer waits at most the timeout
+ * and then gives up with {@link BookingLockTimeoutException}. Wait times are exported over JMX.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=Locks,name=itemBookings")
+public class ItemBookingLocks {
+    private final ReentrantLock[] stripes;
+    private final long timeoutNanos;
+    private final AtomicLong acquisitions = new AtomicLong();
+    private final AtomicLong contended = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong waitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+
+    @Autowired
+    public ItemBookingLocks(@Value("${shareit.booking-lock.stripes:256}") int stripes,
+                            @Value("${shareit.booking-lock.timeout:2s}") Duration timeout) {
+        this.stripes = new ReentrantLock[Integer.highestOneBit(Math.max(stripes - 1, 1)) << 1];
+        for (int i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new ReentrantLock(true);
+        }
+        this.timeoutNanos = timeout.toNanos();
+    }
+
+    /**
+     * Runs the action holding the lock of the item.
+     *
+     * @throws BookingLockTimeoutException if the lock is not acquired within the timeout
+     */
+    public <T> T withLock(long itemId, Supplier<T> action) {
+        final ReentrantLock lock = stripe(itemId);
+        final long startedAt = System.nanoTime();
+        if (!lock.tryLock()) {
+            contended.incrementAndGet();
+            if (!tryLock(lock)) {
+                timeouts.incrementAndGet();
+                throw new BookingLockTimeoutException(
+                        String.format("Вещь %s сейчас бронируют другие пользователи, попробуйте позже", itemId)
+                );
+            }
+        }
+        final long waited = System.nanoTime() - startedAt;
+        acquisitions.incrementAndGet();
+        waitNanos.addAndGet(waited);
+        maxWaitNanos.accumulateAndGet(waited, Math::max);
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private boolean tryLock(ReentrantLock lock) {
+        try {
+            return lock.tryLock(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private ReentrantLock stripe(long itemId) {
+        final int hash = Long.hashCode(itemId) * 0x9E3779B9;
+        return stripes[(hash ^ hash >>> 16) & (stripes.length - 1)];
+    }
+
+    @ManagedAttribute
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    @ManagedAttribute
+    public long getAcquisitions() {
+        return acquisitions.get();
+    }
+
+    @ManagedAttribute
+    public long getContended() {
+        return contended.get();
+    }
+
+    @ManagedAttribute
+    public long getTimeouts() {
+        return timeouts.get();
+    }
+
+    @ManagedAttribute
+    public double getAverageWaitMillis() {
+        final long count = acquisitions.get();
+        return count == 0 ? 0 : waitNanos.get() / 1e6 / count;
+    }
+
+    @ManagedAttribute
+    public double getMaxWaitMillis() {
+        return maxWaitNanos.get() / 1e6;
+    }
+
+    @ManagedAttribute
+    public int getQueueLength() {
+        int waiting = 0;
+        for (ReentrantLock lock : stripes) {
+            waiting += lock.getQueueLength();
+        }
+        return waiting;
+    }
+}
@@ -0,0 +1,42 @@
+package ru.practicum.shareit.common;
+
+import lombok.Value;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Position in a listing ordered by (timestamp desc, id desc), passed to clients as an opaque string.
+ * A full page carries the cursor of its last row in the {@link #NEXT_CURSOR} response header.
+ */
+@Value
+public class SeekCursor {
+    public static final String NEXT_CURSOR = "X-Next-Cursor";
+    private static final String SEPARATOR = "_";
+
+    LocalDateTime timestamp;
+    long id;
+
+    public String encode() {
+        final String raw = timestamp + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static SeekCursor decode(String cursor) {
+        try {
+            final String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            final int separator = raw.lastIndexOf(SEPARATOR);
+            if (separator < 0) {
+                throw new WrongCursorException(String.format("Неверный курсор %s", cursor));
+            }
+            return new SeekCursor(
+                    LocalDateTime.parse(raw.substring(0, separator)),
+                    Long.parseLong(raw.substring(separator + 1))
+            );
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new WrongCursorException(String.format("Неверный курсор %s", cursor));
+        }
+    }
+}
@@ -6,9 +6,11 @@ import org.springframework.web.server.ResponseStatusException;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.dto.ShortBookingDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -45,6 +47,13 @@ public class ItemMapper {
                 .build();
     }
 
+    public ItemSuggestionDto toSuggestionDto(ItemNameSuggestion suggestion) {
+        return ItemSuggestionDto.builder()
+                .id(suggestion.getId())
+                .name(suggestion.getName())
+                .build();
+    }
+
     private void validate(ItemDto itemDto, long ownerId) {
         if (itemDto.getName() == null || itemDto.getName().isBlank()) {
             throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Name is null or blank");
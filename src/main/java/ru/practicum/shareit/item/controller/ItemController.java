@@ -1,32 +1,39 @@
 package ru.practicum.shareit.item.controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
-import ru.practicum.shareit.booking.model.Booking;
-import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.NearestBookings;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
+import ru.practicum.shareit.item.exceptions.WrongSearchPeriodException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.user.principal.SharerUserId;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
 import java.time.LocalDateTime;
 import java.util.Collections;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
+@Validated
 @RestController
 @RequestMapping(
         path = "/items"
@@ -47,7 +54,7 @@ public class ItemController {
             consumes = MediaType.APPLICATION_JSON_VALUE,
             produces = MediaType.APPLICATION_JSON_VALUE
     )
-    public ItemDto createItem(@RequestBody ItemDto itemDto, @RequestHeader("X-Sharer-User-Id") long ownerId) {
+    public ItemDto createItem(@RequestBody ItemDto itemDto, @SharerUserId long ownerId) {
         return itemMapper.toDtoWithComments(
                 itemService.createItem(
                         itemMapper.fromDto(
@@ -66,7 +73,7 @@ public class ItemController {
     public ItemDto updateItem(
             @PathVariable("itemId") long itemId,
             @RequestBody ItemDto itemDto,
-            @RequestHeader("X-Sharer-User-Id") long ownerId
+            @SharerUserId long ownerId
     ) {
         final Item item = itemMapper.fromUpdateDto(itemDto, ownerId).toBuilder().id(itemId).build();
         return itemMapper.toDtoWithComments(
@@ -75,59 +82,70 @@ public class ItemController {
     }
 
     @GetMapping("/{itemId}")
-    public ItemDto getItem(@PathVariable("itemId") long itemId, @RequestHeader("X-Sharer-User-Id") long userId) {
+    public ItemDto getItem(@PathVariable("itemId") long itemId, @SharerUserId long userId) {
         final Item item = itemService.getItem(itemId);
-        return getItemDtoWithBindBooking(userId, item);
+        return getItemDtoWithBindBooking(userId, List.of(item)).get(0);
     }
 
-    private ItemDto getItemDtoWithBindBooking(long userId, Item item) {
-        final List<Booking> bookingForItem = bookingService.getBookingForItem(item);
-        final Booking lastBooking;
-        final Booking nextBooking;
-        if (userId == item.getOwner().getId()) {
-            final LocalDateTime now = LocalDateTime.now();
-            lastBooking = bookingForItem.stream()
-                    .filter(b -> b.getStart().isBefore(now))
-                    .filter(b -> b.getStatus() != BookingStatus.REJECTED)
-                    .max(Comparator.comparing(Booking::getEnd))
-                    .orElse(null);
-            nextBooking = bookingForItem.stream()
-                    .filter(b -> b.getStart().isAfter(now))
-                    .filter(b -> b.getStatus() != BookingStatus.REJECTED)
-                    .min(Comparator.comparing(Booking::getStart))
-                    .orElse(null);
-        } else {
-            lastBooking = null;
-            nextBooking = null;
-        }
-        return itemMapper.toDto(
-                item,
-                lastBooking,
-                nextBooking
-        );
+    /**
+     * Last and next bookings are shown only to the owner and are loaded for all owned items at once.
+     */
+    private List<ItemDto> getItemDtoWithBindBooking(long userId, List<Item> items) {
+        final List<Long> ownedItemIds = items.stream()
+                .filter(item -> item.getOwner().getId() == userId)
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        final Map<Long, NearestBookings> nearestBookings = ownedItemIds.isEmpty() ?
+                Collections.emptyMap() :
+                bookingService.getNearestBookings(ownedItemIds, LocalDateTime.now());
+        return items.stream()
+                .map(item -> {
+                    final NearestBookings nearest = nearestBookings.getOrDefault(item.getId(), NearestBookings.EMPTY);
+                    return itemMapper.toDto(item, nearest.getLast(), nearest.getNext());
+                })
+                .collect(Collectors.toList());
     }
 
     @GetMapping
-    public List<ItemDto> getItemsByOwner(@RequestHeader("X-Sharer-User-Id") long ownerId) {
-        return itemService.getItemsByOwner(ownerId)
-                .stream()
-                .map(item -> getItemDtoWithBindBooking(ownerId, item))
-                .collect(Collectors.toList());
+    public List<ItemDto> getItemsByOwner(@SharerUserId long ownerId) {
+        return getItemDtoWithBindBooking(ownerId, itemService.getItemsByOwner(ownerId));
     }
 
     @GetMapping("search")
-    public List<ItemDto> searchAvailableItems(@RequestParam("text") String text, @RequestHeader("X-Sharer-User-Id") long userId) {
+    public List<ItemDto> searchAvailableItems(
+            @RequestParam("text") String text,
+            @SharerUserId long userId,
+            @RequestParam(defaultValue = "0") @PositiveOrZero int from,
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end
+    ) {
         if (text == null || text.isBlank()) {
             return Collections.emptyList();
         }
-        return itemService.searchAvailableItems(text)
+        final PageRequest pageRequest = PageRequest.of(from / size, size);
+        if (start == null && end == null) {
+            return getItemDtoWithBindBooking(userId, itemService.searchAvailableItems(text, pageRequest));
+        }
+        if (start == null || end == null) {
+            throw new WrongSearchPeriodException("Нужно указать и начало, и окончание периода");
+        }
+        return getItemDtoWithBindBooking(userId, itemService.searchAvailableItems(text, start, end, pageRequest));
+    }
+
+    @GetMapping("suggest")
+    public List<ItemSuggestionDto> suggest(@RequestParam("prefix") String prefix) {
+        if (prefix.isBlank()) {
+            return Collections.emptyList();
+        }
+        return itemService.suggest(prefix)
                 .stream()
-                .map(item -> getItemDtoWithBindBooking(userId, item))
+                .map(itemMapper::toSuggestionDto)
                 .collect(Collectors.toList());
     }
 
     @PostMapping("/{itemId}/comment")
-    public CommentDto addComment(@RequestHeader("X-Sharer-User-Id") long userId, @PathVariable long itemId,
+    public CommentDto addComment(@SharerUserId long userId, @PathVariable long itemId,
                                  @RequestBody @Valid CommentDto commentDTO) {
         return itemMapper.toCommentDto(itemService.addComment(itemMapper.fromAddComment(userId, itemId, commentDTO)));
     }
@@ -0,0 +1,7 @@
+package ru.practicum.shareit.item.exceptions;
+
+public class WrongSearchPeriodException extends RuntimeException {
+    public WrongSearchPeriodException(String message) {
+        super(message);
+    }
+}
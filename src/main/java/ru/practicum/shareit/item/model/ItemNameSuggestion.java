@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+import lombok.With;
+
+/**
+ * Name of an available item offered for a typed prefix, {@code key} being the normalized name.
+ */
+@Value
+public class ItemNameSuggestion {
+    long id;
+    String name;
+    String key;
+    @With
+    long bookings;
+}
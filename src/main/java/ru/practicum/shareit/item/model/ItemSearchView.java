@@ -0,0 +1,16 @@
+package ru.practicum.shareit.item.model;
+
+/**
+ * Item columns needed to build the in-memory search index.
+ */
+public interface ItemSearchView {
+    long getId();
+
+    long getOwnerId();
+
+    String getName();
+
+    String getDescription();
+
+    Boolean getAvailable();
+}
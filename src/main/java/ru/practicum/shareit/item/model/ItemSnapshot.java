@@ -0,0 +1,43 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.Value;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.user.model.User;
+
+/**
+ * Immutable copy of the item columns, without owner and comments entities.
+ */
+@Value
+public class ItemSnapshot {
+    long id;
+    String name;
+    String description;
+    Boolean available;
+    long ownerId;
+    Long requestId;
+
+    public static ItemSnapshot of(Item item) {
+        return new ItemSnapshot(
+                item.getId(),
+                item.getName(),
+                item.getDescription(),
+                item.getAvailable(),
+                item.getOwner().getId(),
+                item.getRequest() != null ? item.getRequest().getId() : null
+        );
+    }
+
+    /**
+     * Detached item with the snapshot values, usable as a reference when saving bookings and comments.
+     */
+    public Item toItem() {
+        return Item.builder()
+                .id(id)
+                .name(name)
+                .description(description)
+                .available(available)
+                .owner(User.builder().id(ownerId).build())
+                .request(requestId != null ? ItemRequest.builder().id(requestId).build() : null)
+                .build();
+    }
+}
@@ -1,15 +1,30 @@
 package ru.practicum.shareit.item.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchView;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
     List<Item> findAllByOwnerId(long ownerId);
 
-    List<Item> findAllByNameContainingIgnoreCase(String text);
+    @Query("select i.id as id, i.owner.id as ownerId, i.name as name, i.description as description,"
+            + " i.available as available from Item i")
+    List<ItemSearchView> findAllSearchViews();
 
-    List<Item> findAllByDescriptionContainingIgnoreCase(String text);
+    @Query("select new ru.practicum.shareit.item.model.ItemSnapshot("
+            + "i.id, i.name, i.description, i.available, i.owner.id, r.id) "
+            + "from Item i left join i.request r where i.id = :id")
+    Optional<ItemSnapshot> findSnapshotById(@Param("id") long id);
 
+    @Query("select new ru.practicum.shareit.item.model.ItemSnapshot("
+            + "i.id, i.name, i.description, i.available, i.owner.id, r.id) "
+            + "from Item i join i.request r where r.id in :requestIds order by i.id")
+    List<ItemSnapshot> findSnapshotsByRequestIdIn(@Param("requestIds") Collection<Long> requestIds);
 }
@@ -0,0 +1,172 @@
+package ru.practicum.shareit.item.search;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.ItemBookingCount;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Autocomplete over names of available items, ranked by how many approved bookings an item has.
+ * Every trie node caches the best {@link #TOP_SIZE} suggestions of its subtree, so a lookup
+ * only walks the prefix and never touches the database. Writes rebuild the caches on the
+ * changed path and are serialized; lookups read immutable lists without locking.
+ * Items of a deleted user are dropped on {@link UserDeletedEvent}.
+ */
+@Component
+public class ItemNameSuggester {
+    public static final int TOP_SIZE = 10;
+    private static final Comparator<ItemNameSuggestion> BY_POPULARITY = Comparator
+            .comparingLong(ItemNameSuggestion::getBookings).reversed()
+            .thenComparing(ItemNameSuggestion::getName)
+            .thenComparingLong(ItemNameSuggestion::getId);
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final Node root = new Node();
+    private final ConcurrentMap<Long, ItemNameSuggestion> suggestions = new ConcurrentHashMap<>();
+    private final Map<Long, Long> bookings = new HashMap<>();
+    private final Map<Long, Set<Long>> itemsByOwner = new HashMap<>();
+
+    @Autowired
+    public ItemNameSuggester(ItemRepository itemRepository, BookingRepository bookingRepository) {
+        this.itemRepository = itemRepository;
+        this.bookingRepository = bookingRepository;
+    }
+
+    @PostConstruct
+    public synchronized void rebuild() {
+        for (ItemBookingCount count : bookingRepository.countByStatusGroupByItem(BookingStatus.APPROVED)) {
+            bookings.put(count.getItemId(), count.getBookings());
+        }
+        itemRepository.findAllSearchViews().forEach(
+                view -> index(view.getId(), view.getOwnerId(), view.getName(), view.getAvailable())
+        );
+    }
+
+    public void index(Item item) {
+        index(item.getId(), item.getOwner().getId(), item.getName(), item.getAvailable());
+    }
+
+    public synchronized void index(long itemId, long ownerId, String name, boolean available) {
+        itemsByOwner.computeIfAbsent(ownerId, key -> new HashSet<>()).add(itemId);
+        final ItemNameSuggestion suggestion = available && name != null && !name.isBlank()
+                ? new ItemNameSuggestion(itemId, name, TextTokenizer.normalize(name.strip()),
+                bookings.getOrDefault(itemId, 0L))
+                : null;
+        final ItemNameSuggestion previous = suggestion == null ? suggestions.remove(itemId) : suggestions.put(itemId, suggestion);
+        if (previous != null && (suggestion == null || !previous.getKey().equals(suggestion.getKey()))) {
+            remove(previous);
+        }
+        if (suggestion != null) {
+            add(suggestion);
+        }
+    }
+
+    /**
+     * Counts a booking of the item once its owner has approved it.
+     */
+    public synchronized void recordApprovedBooking(long itemId) {
+        final long count = bookings.merge(itemId, 1L, Long::sum);
+        final ItemNameSuggestion previous = suggestions.get(itemId);
+        if (previous != null) {
+            final ItemNameSuggestion suggestion = previous.withBookings(count);
+            suggestions.put(itemId, suggestion);
+            add(suggestion);
+        }
+    }
+
+    @EventListener
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        final Set<Long> itemIds = itemsByOwner.remove(event.getId());
+        if (itemIds == null) {
+            return;
+        }
+        for (long itemId : itemIds) {
+            bookings.remove(itemId);
+            final ItemNameSuggestion previous = suggestions.remove(itemId);
+            if (previous != null) {
+                remove(previous);
+            }
+        }
+    }
+
+    /**
+     * Most booked available items whose name starts with the prefix, case-insensitively.
+     */
+    public List<ItemNameSuggestion> suggest(String prefix) {
+        Node node = root;
+        final String key = TextTokenizer.normalize(prefix.strip());
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.children.get(key.charAt(i));
+        }
+        return node == null ? List.of() : node.top;
+    }
+
+    private void add(ItemNameSuggestion suggestion) {
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        for (char c : suggestion.getKey().toCharArray()) {
+            node = node.children.computeIfAbsent(c, key -> new Node());
+            path.add(node);
+        }
+        node.terminals.put(suggestion.getId(), suggestion);
+        refresh(path);
+    }
+
+    private void remove(ItemNameSuggestion suggestion) {
+        final List<Node> path = new ArrayList<>();
+        Node node = root;
+        path.add(node);
+        for (char c : suggestion.getKey().toCharArray()) {
+            node = node.children.get(c);
+            if (node == null) {
+                return;
+            }
+            path.add(node);
+        }
+        node.terminals.remove(suggestion.getId());
+        final String key = suggestion.getKey();
+        for (int i = path.size() - 1; i > 0; i--) {
+            final Node current = path.get(i);
+            if (!current.terminals.isEmpty() || !current.children.isEmpty()) {
+                break;
+            }
+            path.get(i - 1).children.remove(key.charAt(i - 1));
+        }
+        refresh(path);
+    }
+
+    private void refresh(List<Node> path) {
+        for (int i = path.size() - 1; i >= 0; i--) {
+            final Node node = path.get(i);
+            final List<ItemNameSuggestion> candidates = new ArrayList<>(node.terminals.values());
+            node.children.values().forEach(child -> candidates.addAll(child.top));
+            candidates.sort(BY_POPULARITY);
+            node.top = List.copyOf(candidates.subList(0, Math.min(TOP_SIZE, candidates.size())));
+        }
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new ConcurrentHashMap<>();
+        private final Map<Long, ItemNameSuggestion> terminals = new HashMap<>();
+        private volatile List<ItemNameSuggestion> top = List.of();
+    }
+}
@@ -0,0 +1,245 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSearchView;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * In-memory inverted index over item names and descriptions.
+ * Every query word matches indexed words starting with it, all query words have to match,
+ * and only available items are returned. Built from the items table at startup and
+ * updated by the item service after each committed write.
+ * <p>
+ * Results are ranked with BM25F: term frequencies of the name are weighted above the description.
+ * Items of a deleted user are dropped on {@link UserDeletedEvent}, as the database deletes them by cascade.
+ */
+@Component
+public class ItemSearchIndex {
+    private static final double NAME_WEIGHT = 3.0;
+    private static final double DESCRIPTION_WEIGHT = 1.0;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final ItemRepository itemRepository;
+    private final TrigramIndex trigramIndex;
+    private final ConcurrentNavigableMap<String, Map<Long, TermFrequency>> postings = new ConcurrentSkipListMap<>();
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> itemsByOwner = new ConcurrentHashMap<>();
+    private volatile long nameLengthSum;
+    private volatile long descriptionLengthSum;
+
+    @Autowired
+    public ItemSearchIndex(ItemRepository itemRepository, TrigramIndex trigramIndex) {
+        this.itemRepository = itemRepository;
+        this.trigramIndex = trigramIndex;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final List<ItemSearchView> views = itemRepository.findAllSearchViews();
+        views.parallelStream().forEach(
+                view -> trigramIndex.index(view.getId(), view.getName(), view.getDescription(), view.getAvailable())
+        );
+        views.forEach(view -> indexWords(view.getId(), view.getOwnerId(), view.getName(), view.getDescription(),
+                view.getAvailable()));
+    }
+
+    public void index(Item item) {
+        index(item.getId(), item.getOwner().getId(), item.getName(), item.getDescription(), item.getAvailable());
+    }
+
+    public synchronized void index(long itemId, long ownerId, String name, String description, boolean available) {
+        trigramIndex.index(itemId, name, description, available);
+        indexWords(itemId, ownerId, name, description, available);
+    }
+
+    public synchronized void remove(long itemId) {
+        final Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        nameLengthSum -= document.getNameLength();
+        descriptionLengthSum -= document.getDescriptionLength();
+        document.getTokens().forEach(token -> removePosting(token, itemId));
+        itemsByOwner.computeIfPresent(document.getOwnerId(), (key, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+        trigramIndex.remove(itemId);
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        final Set<Long> itemIds = itemsByOwner.get(event.getId());
+        if (itemIds != null) {
+            List.copyOf(itemIds).forEach(this::remove);
+        }
+    }
+
+    private void indexWords(long itemId, long ownerId, String name, String description, boolean available) {
+        final List<String> nameTokens = TextTokenizer.tokenize(name);
+        final List<String> descriptionTokens = TextTokenizer.tokenize(description);
+        final Map<String, TermFrequency> frequencies = new HashMap<>();
+        nameTokens.forEach(token -> frequencies.merge(token, TermFrequency.NAME, TermFrequency::plus));
+        descriptionTokens.forEach(token -> frequencies.merge(token, TermFrequency.DESCRIPTION, TermFrequency::plus));
+        final Document document = new Document(
+                Set.copyOf(frequencies.keySet()), ownerId, nameTokens.size(), descriptionTokens.size(), available
+        );
+        final Document previous = documents.put(itemId, document);
+        if (previous != null) {
+            nameLengthSum -= previous.getNameLength();
+            descriptionLengthSum -= previous.getDescriptionLength();
+            for (String token : previous.getTokens()) {
+                if (!frequencies.containsKey(token)) {
+                    removePosting(token, itemId);
+                }
+            }
+        }
+        itemsByOwner.computeIfAbsent(ownerId, key -> ConcurrentHashMap.newKeySet()).add(itemId);
+        nameLengthSum += document.getNameLength();
+        descriptionLengthSum += document.getDescriptionLength();
+        frequencies.forEach(
+                (token, frequency) -> postings.computeIfAbsent(token, key -> new ConcurrentHashMap<>())
+                        .put(itemId, frequency)
+        );
+    }
+
+    /**
+     * Ids of available items matching every word of the text, most relevant first.
+     * Only the {@code offset + limit} best matches are kept while ranking.
+     * Queries without word matches fall back to substring and fuzzy matching by {@link TrigramIndex}.
+     */
+    public List<Long> search(String text, long offset, int limit) {
+        return search(text, UnaryOperator.identity(), offset, limit);
+    }
+
+    /**
+     * Same as {@link #search(String, long, int)}, keeping only matches returned by the filter.
+     */
+    public List<Long> search(String text, UnaryOperator<Set<Long>> filter, long offset, int limit) {
+        final Set<String> queryTokens = new LinkedHashSet<>(TextTokenizer.tokenize(text));
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        final Statistics statistics = statistics();
+        Map<Long, Double> scores = null;
+        for (String queryToken : queryTokens) {
+            final Map<Long, Double> tokenScores = scorePrefix(queryToken, statistics);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                final Map<Long, Double> matched = tokenScores;
+                scores.keySet().retainAll(matched.keySet());
+                scores.replaceAll((id, score) -> score + matched.get(id));
+            }
+            if (scores.isEmpty()) {
+                return trigramIndex.search(text, filter, offset, limit);
+            }
+        }
+        return RankedIds.top(scores, this::isAvailable, filter, offset, limit);
+    }
+
+    private Map<Long, Double> scorePrefix(String prefix, Statistics statistics) {
+        final Map<Long, Double> scores = new HashMap<>();
+        for (Map<Long, TermFrequency> termPostings
+                : postings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            final double idf = idf(statistics.getDocuments(), termPostings.size());
+            termPostings.forEach((id, frequency) -> {
+                final Document document = documents.get(id);
+                if (document != null) {
+                    scores.merge(id, idf * saturate(frequency, document, statistics), Double::sum);
+                }
+            });
+        }
+        return scores;
+    }
+
+    private static double idf(long documentCount, long documentFrequency) {
+        return Math.log(1 + (documentCount - documentFrequency + 0.5) / (documentFrequency + 0.5));
+    }
+
+    private static double saturate(TermFrequency frequency, Document document, Statistics statistics) {
+        final double weighted = NAME_WEIGHT * normalize(frequency.getName(), document.getNameLength(),
+                statistics.getAverageNameLength())
+                + DESCRIPTION_WEIGHT * normalize(frequency.getDescription(), document.getDescriptionLength(),
+                statistics.getAverageDescriptionLength());
+        return weighted * (K1 + 1) / (weighted + K1);
+    }
+
+    private static double normalize(int frequency, int length, double averageLength) {
+        if (frequency == 0) {
+            return 0;
+        }
+        return frequency / (1 - B + B * length / averageLength);
+    }
+
+    private Statistics statistics() {
+        final long count = Math.max(documents.size(), 1);
+        return new Statistics(
+                count,
+                Math.max((double) nameLengthSum / count, 1),
+                Math.max((double) descriptionLengthSum / count, 1)
+        );
+    }
+
+    private boolean isAvailable(long itemId) {
+        final Document document = documents.get(itemId);
+        return document != null && document.isAvailable();
+    }
+
+    private void removePosting(String token, long itemId) {
+        final Map<Long, TermFrequency> ids = postings.get(token);
+        if (ids != null) {
+            ids.remove(itemId);
+            if (ids.isEmpty()) {
+                postings.remove(token, ids);
+            }
+        }
+    }
+
+    @Value
+    private static class TermFrequency {
+        static final TermFrequency NAME = new TermFrequency(1, 0);
+        static final TermFrequency DESCRIPTION = new TermFrequency(0, 1);
+
+        int name;
+        int description;
+
+        TermFrequency plus(TermFrequency other) {
+            return new TermFrequency(name + other.name, description + other.description);
+        }
+    }
+
+    @Value
+    private static class Document {
+        Set<String> tokens;
+        long ownerId;
+        int nameLength;
+        int descriptionLength;
+        boolean available;
+    }
+
+    @Value
+    private static class Statistics {
+        long documents;
+        double averageNameLength;
+        double averageDescriptionLength;
+    }
+}
@@ -0,0 +1,69 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.LongPredicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Picks one page of the best scored ids. Equal scores are ordered by id. Candidates rejected by
+ * the predicate are dropped first. The rest are heapified in linear time and handed to the filter in score order,
+ * in batches growing from {@link #MIN_BATCH} to {@link #MAX_BATCH}, until {@code offset + limit}
+ * of them are kept, so an expensive filter only sees the candidates a page needs.
+ */
+final class RankedIds {
+    static final int MIN_BATCH = 32;
+    static final int MAX_BATCH = 500;
+    private static final Comparator<ScoredId> BY_SCORE = Comparator
+            .comparingDouble(ScoredId::getScore).reversed()
+            .thenComparingLong(ScoredId::getId);
+
+    private RankedIds() {
+    }
+
+    static List<Long> top(Map<Long, Double> scores, LongPredicate predicate, UnaryOperator<Set<Long>> filter,
+                          long offset, int limit) {
+        final List<ScoredId> candidates = new ArrayList<>();
+        scores.forEach((id, score) -> {
+            if (predicate.test(id)) {
+                candidates.add(new ScoredId(id, score));
+            }
+        });
+        final PriorityQueue<ScoredId> heap = new PriorityQueue<>(candidates);
+        final long capacity = offset + limit;
+        final List<Long> kept = new ArrayList<>();
+        int batchSize = MIN_BATCH;
+        while (!heap.isEmpty() && kept.size() < capacity) {
+            final Set<Long> batch = new LinkedHashSet<>();
+            while (!heap.isEmpty() && batch.size() < batchSize) {
+                batch.add(heap.poll().getId());
+            }
+            final Set<Long> passed = filter.apply(batch);
+            batch.stream().filter(passed::contains).forEach(kept::add);
+            batchSize = Math.min(batchSize * 2, MAX_BATCH);
+        }
+        return kept.stream()
+                .skip(offset)
+                .limit(limit)
+                .collect(Collectors.toList());
+    }
+
+    @Value
+    private static class ScoredId implements Comparable<ScoredId> {
+        long id;
+        double score;
+
+        @Override
+        public int compareTo(ScoredId other) {
+            return BY_SCORE.compare(this, other);
+        }
+    }
+}
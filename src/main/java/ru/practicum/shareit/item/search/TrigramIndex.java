@@ -0,0 +1,250 @@
+package ru.practicum.shareit.item.search;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.UnaryOperator;
+
+/**
+ * Trigram index over item names and descriptions for queries the word index cannot answer.
+ * A query is first looked up as a substring: items holding every trigram of the query words are
+ * verified against their stored text. When nothing contains it, every query word is matched to
+ * indexed words with a trigram Jaccard similarity of at least {@link #MIN_SIMILARITY}, which
+ * tolerates typos. Words are padded like in pg_trgm, so word edges count as trigrams too.
+ * <p>
+ * Items may be added concurrently, which lets the index be rebuilt in parallel;
+ * updates of indexed items are serialized by {@link ItemSearchIndex}.
+ */
+@Component
+public class TrigramIndex {
+    private static final double MIN_SIMILARITY = 0.3;
+    private static final double NAME_BONUS = 1.0;
+
+    private final ConcurrentMap<String, Set<Long>> itemsByTrigram = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> wordsByTrigram = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<Long>> itemsByWord = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+
+    public void index(long itemId, String name, String description, boolean available) {
+        final List<String> nameWords = TextTokenizer.tokenize(name);
+        final List<String> descriptionWords = TextTokenizer.tokenize(description);
+        final Set<String> words = new HashSet<>(nameWords);
+        words.addAll(descriptionWords);
+        final Set<String> trigrams = new HashSet<>();
+        words.forEach(word -> trigrams.addAll(trigrams(word)));
+        final Document document = new Document(
+                String.join(" ", nameWords), String.join(" ", descriptionWords), Set.copyOf(words),
+                Set.copyOf(trigrams), available
+        );
+        final Document previous = documents.put(itemId, document);
+        if (previous != null) {
+            previous.getTrigrams().stream()
+                    .filter(trigram -> !trigrams.contains(trigram))
+                    .forEach(trigram -> removeFrom(itemsByTrigram, trigram, itemId));
+            previous.getWords().stream()
+                    .filter(word -> !words.contains(word))
+                    .forEach(word -> removeWord(word, itemId));
+        }
+        trigrams.forEach(trigram -> addTo(itemsByTrigram, trigram, itemId));
+        for (String word : words) {
+            addTo(itemsByWord, word, itemId);
+            trigrams(word).forEach(trigram -> addTo(wordsByTrigram, trigram, word));
+        }
+    }
+
+    public void remove(long itemId) {
+        final Document document = documents.remove(itemId);
+        if (document == null) {
+            return;
+        }
+        document.getTrigrams().forEach(trigram -> removeFrom(itemsByTrigram, trigram, itemId));
+        document.getWords().forEach(word -> removeWord(word, itemId));
+    }
+
+    /**
+     * Ids of available items containing the text, or failing that similar to it, best matches first.
+     */
+    public List<Long> search(String text, long offset, int limit) {
+        return search(text, UnaryOperator.identity(), offset, limit);
+    }
+
+    /**
+     * Same as {@link #search(String, long, int)}, keeping only matches returned by the filter.
+     */
+    public List<Long> search(String text, UnaryOperator<Set<Long>> filter, long offset, int limit) {
+        final List<String> queryWords = TextTokenizer.tokenize(text);
+        if (queryWords.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+        Map<Long, Double> scores = matchSubstring(queryWords);
+        if (scores.isEmpty()) {
+            scores = matchSimilar(queryWords);
+        }
+        return RankedIds.top(scores, this::isAvailable, filter, offset, limit);
+    }
+
+    private Map<Long, Double> matchSubstring(List<String> queryWords) {
+        final Set<String> required = new HashSet<>();
+        final Set<String> queryTrigrams = new HashSet<>();
+        for (String word : queryWords) {
+            required.addAll(innerTrigrams(word));
+            queryTrigrams.addAll(trigrams(word));
+        }
+        if (required.isEmpty()) {
+            return Map.of();
+        }
+        final String phrase = String.join(" ", queryWords);
+        final Map<Long, Double> scores = new HashMap<>();
+        for (long itemId : candidates(required)) {
+            final Document document = documents.get(itemId);
+            if (document == null) {
+                continue;
+            }
+            final boolean inName = document.getName().contains(phrase);
+            if (inName || document.getDescription().contains(phrase)) {
+                final double similarity = similarity(queryTrigrams, document.getTrigrams());
+                scores.put(itemId, inName ? similarity + NAME_BONUS : similarity);
+            }
+        }
+        return scores;
+    }
+
+    private Set<Long> candidates(Set<String> required) {
+        Set<Long> smallest = null;
+        for (String trigram : required) {
+            final Set<Long> ids = itemsByTrigram.get(trigram);
+            if (ids == null) {
+                return Set.of();
+            }
+            if (smallest == null || ids.size() < smallest.size()) {
+                smallest = ids;
+            }
+        }
+        final Set<Long> result = new HashSet<>(smallest);
+        for (String trigram : required) {
+            result.retainAll(itemsByTrigram.getOrDefault(trigram, Set.of()));
+        }
+        return result;
+    }
+
+    private Map<Long, Double> matchSimilar(List<String> queryWords) {
+        Map<Long, Double> scores = null;
+        for (String queryWord : queryWords) {
+            final Map<Long, Double> wordScores = new HashMap<>();
+            similarWords(queryWord).forEach((word, similarity) -> {
+                for (long itemId : itemsByWord.getOrDefault(word, Set.of())) {
+                    wordScores.merge(itemId, similarity, Math::max);
+                }
+            });
+            if (scores == null) {
+                scores = wordScores;
+            } else {
+                scores.keySet().retainAll(wordScores.keySet());
+                scores.replaceAll((id, score) -> score + wordScores.get(id));
+            }
+            if (scores.isEmpty()) {
+                break;
+            }
+        }
+        return scores;
+    }
+
+    private Map<String, Double> similarWords(String queryWord) {
+        final Set<String> queryTrigrams = trigrams(queryWord);
+        final Map<String, Integer> shared = new HashMap<>();
+        for (String trigram : queryTrigrams) {
+            for (String word : wordsByTrigram.getOrDefault(trigram, Set.of())) {
+                shared.merge(word, 1, Integer::sum);
+            }
+        }
+        final Map<String, Double> similar = new HashMap<>();
+        shared.forEach((word, common) -> {
+            final double similarity = (double) common / (queryTrigrams.size() + trigramCount(word) - common);
+            if (similarity >= MIN_SIMILARITY) {
+                similar.put(word, similarity);
+            }
+        });
+        return similar;
+    }
+
+    private boolean isAvailable(long itemId) {
+        final Document document = documents.get(itemId);
+        return document != null && document.isAvailable();
+    }
+
+    private void removeWord(String word, long itemId) {
+        final Set<Long> left = itemsByWord.computeIfPresent(word, (key, ids) -> {
+            ids.remove(itemId);
+            return ids.isEmpty() ? null : ids;
+        });
+        if (left == null) {
+            trigrams(word).forEach(trigram -> removeFrom(wordsByTrigram, trigram, word));
+        }
+    }
+
+    private static double similarity(Set<String> first, Set<String> second) {
+        int common = 0;
+        for (String trigram : first) {
+            if (second.contains(trigram)) {
+                common++;
+            }
+        }
+        final int union = first.size() + second.size() - common;
+        return union == 0 ? 0 : (double) common / union;
+    }
+
+    /**
+     * Trigrams of the word padded with two spaces in front and one behind.
+     */
+    private static Set<String> trigrams(String word) {
+        final String padded = "  " + word + " ";
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= padded.length(); i++) {
+            trigrams.add(padded.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static Set<String> innerTrigrams(String word) {
+        final Set<String> trigrams = new HashSet<>();
+        for (int i = 0; i + 3 <= word.length(); i++) {
+            trigrams.add(word.substring(i, i + 3));
+        }
+        return trigrams;
+    }
+
+    private static int trigramCount(String word) {
+        return trigrams(word).size();
+    }
+
+    private static <K, V> void addTo(ConcurrentMap<K, Set<V>> postings, K key, V value) {
+        postings.compute(key, (k, values) -> {
+            final Set<V> result = values == null ? ConcurrentHashMap.newKeySet() : values;
+            result.add(value);
+            return result;
+        });
+    }
+
+    private static <K, V> void removeFrom(ConcurrentMap<K, Set<V>> postings, K key, V value) {
+        postings.computeIfPresent(key, (k, values) -> {
+            values.remove(value);
+            return values.isEmpty() ? null : values;
+        });
+    }
+
+    @Value
+    private static class Document {
+        String name;
+        String description;
+        Set<String> words;
+        Set<String> trigrams;
+        boolean available;
+    }
+}
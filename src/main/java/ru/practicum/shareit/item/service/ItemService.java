@@ -1,8 +1,12 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface ItemService {
@@ -12,9 +16,20 @@ public interface ItemService {
 
     Item getItem(long itemId);
 
+    ItemSnapshot getSnapshot(long itemId);
+
     List<Item> getItemsByOwner(long ownerId);
 
-    List<Item> searchAvailableItems(String text);
+    List<Item> searchAvailableItems(String text, Pageable pageable);
+
+    List<Item> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end, Pageable pageable);
+
+    List<ItemNameSuggestion> suggest(String prefix);
+
+    /**
+     * Raises the item in name suggestions after its owner approved a booking of it.
+     */
+    void recordApprovedBooking(long itemId);
 
     Comment addComment(Comment comment);
 }
@@ -1,27 +1,41 @@
 package ru.practicum.shareit.item.service;
 
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.TransactionHooks;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.exceptions.WrongCommentDateException;
 import ru.practicum.shareit.item.exceptions.WrongOwnerIdException;
+import ru.practicum.shareit.item.exceptions.WrongSearchPeriodException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
+@Slf4j
 @Service
 public class ItemServiceImpl implements ItemService {
     private final ItemRepository itemRepository;
@@ -29,6 +43,10 @@ public class ItemServiceImpl implements ItemService {
     private final BookingService bookingService;
     private final CommentRepository commentRepository;
     private final ItemRequestService itemRequestService;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemNameSuggester itemNameSuggester;
+    private final ItemSnapshotCache itemSnapshotCache;
+    private final ItemRequestFeed itemRequestFeed;
 
     @Autowired
     public ItemServiceImpl(
@@ -36,13 +54,21 @@ public class ItemServiceImpl implements ItemService {
             UserService userService,
             ItemRequestService itemRequestService,
             BookingService bookingService,
-            CommentRepository commentRepository
+            CommentRepository commentRepository,
+            ItemSearchIndex itemSearchIndex,
+            ItemNameSuggester itemNameSuggester,
+            ItemSnapshotCache itemSnapshotCache,
+            ItemRequestFeed itemRequestFeed
     ) {
         this.itemRepository = itemRepository;
         this.userService = userService;
         this.bookingService = bookingService;
         this.commentRepository = commentRepository;
         this.itemRequestService = itemRequestService;
+        this.itemSearchIndex = itemSearchIndex;
+        this.itemNameSuggester = itemNameSuggester;
+        this.itemSnapshotCache = itemSnapshotCache;
+        this.itemRequestFeed = itemRequestFeed;
     }
 
     @Override
@@ -53,16 +79,25 @@ public class ItemServiceImpl implements ItemService {
         if (item.getRequest() != null) {
             item.setRequest(itemRequestService.get(item.getRequest().getId()));
         }
-        return itemRepository.save(item);
+        final Item saved = itemRepository.save(item);
+        final ItemSnapshot snapshot = ItemSnapshot.of(saved);
+        TransactionHooks.afterCommit(() -> {
+            itemSnapshotCache.invalidate(saved.getId());
+            itemSearchIndex.index(saved);
+            itemNameSuggester.index(saved);
+            itemRequestFeed.putItem(snapshot);
+            recordSuggestions(saved);
+        });
+        return saved;
     }
 
     @Override
     @Transactional
     public Item updateItem(Item item) {
-        final Item prev = getItem(item.getId());
-        if (prev.getOwner().getId() != item.getOwner().getId()) {
+        if (getSnapshot(item.getId()).getOwnerId() != item.getOwner().getId()) {
             throw new WrongOwnerIdException(String.format("Only owner can update item with id %s", item.getId()));
         }
+        final Item prev = getItem(item.getId());
         if (item.getName() != null) {
             prev.setName(item.getName());
         }
@@ -72,7 +107,27 @@ public class ItemServiceImpl implements ItemService {
         if (item.getAvailable() != null) {
             prev.setAvailable(item.getAvailable());
         }
-        return itemRepository.save(prev);
+        final Item saved = itemRepository.save(prev);
+        final ItemSnapshot snapshot = ItemSnapshot.of(saved);
+        TransactionHooks.afterCommit(() -> {
+            itemSnapshotCache.invalidate(saved.getId());
+            itemSearchIndex.index(saved);
+            itemNameSuggester.index(saved);
+            itemRequestFeed.putItem(snapshot);
+            recordSuggestions(saved);
+        });
+        return saved;
+    }
+
+    /**
+     * Suggestions are best-effort: losing a race with the deletion of a matched request costs only them.
+     */
+    private void recordSuggestions(Item item) {
+        try {
+            itemRequestService.recordSuggestions(item);
+        } catch (DataAccessException e) {
+            log.warn("Suggestions for item {} were not recorded: {}", item.getId(), e.getMessage());
+        }
     }
 
     @Override
@@ -82,6 +137,15 @@ public class ItemServiceImpl implements ItemService {
                 .orElseThrow(() -> new ItemNotFoundException(String.format("Item with id = %s not found", itemId)));
     }
 
+    /**
+     * Not transactional, so a cache hit does not take a connection.
+     */
+    @Override
+    public ItemSnapshot getSnapshot(long itemId) {
+        return itemSnapshotCache.get(itemId, () -> itemRepository.findSnapshotById(itemId))
+                .orElseThrow(() -> new ItemNotFoundException(String.format("Item with id = %s not found", itemId)));
+    }
+
     @Override
     @Transactional(readOnly = true)
     public List<Item> getItemsByOwner(long ownerId) {
@@ -93,20 +157,51 @@ public class ItemServiceImpl implements ItemService {
 
     @Override
     @Transactional(readOnly = true)
-    public List<Item> searchAvailableItems(String text) {
-        final List<Item> result = new ArrayList<>();
-        result.addAll(itemRepository.findAllByNameContainingIgnoreCase(text));
-        result.addAll(itemRepository.findAllByDescriptionContainingIgnoreCase(text));
-        return result.stream()
-                .distinct()
-                .filter(Item::getAvailable)
+    public List<Item> searchAvailableItems(String text, Pageable pageable) {
+        return findAllByIdInOrder(itemSearchIndex.search(text, pageable.getOffset(), pageable.getPageSize()));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> searchAvailableItems(String text, LocalDateTime start, LocalDateTime end, Pageable pageable) {
+        if (!start.isBefore(end)) {
+            throw new WrongSearchPeriodException("Начало периода должно быть раньше его окончания");
+        }
+        return findAllByIdInOrder(itemSearchIndex.search(
+                text,
+                ids -> bookingService.findFreeItems(ids, start, end),
+                pageable.getOffset(),
+                pageable.getPageSize()
+        ));
+    }
+
+    private List<Item> findAllByIdInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Map<Long, Item> items = itemRepository.findAllById(ids)
+                .stream()
+                .collect(Collectors.toMap(Item::getId, Function.identity()));
+        return ids.stream()
+                .map(items::get)
+                .filter(Objects::nonNull)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<ItemNameSuggestion> suggest(String prefix) {
+        return itemNameSuggester.suggest(prefix);
+    }
+
+    @Override
+    public void recordApprovedBooking(long itemId) {
+        itemNameSuggester.recordApprovedBooking(itemId);
+    }
+
     @Override
     @Transactional
     public Comment addComment(Comment comment) {
-        final Item item = getItem(comment.getItem().getId());
+        final Item item = getSnapshot(comment.getItem().getId()).toItem();
         final Booking booking = bookingService.getBooking(item, comment.getAuthor().getId());
         if (booking.getStart().isAfter(LocalDateTime.now())) {
             throw new WrongCommentDateException("Можно оставлять отзыв только после начала броинрования");
@@ -114,9 +209,6 @@ public class ItemServiceImpl implements ItemService {
         comment.setItem(item);
         comment.setAuthor(booking.getBooker());
         comment.setCreated(LocalDateTime.now());
-        final Comment saved = commentRepository.save(comment);
-        item.getComments().add(saved);
-        itemRepository.save(item);
-        return saved;
+        return commentRepository.save(comment);
     }
 }
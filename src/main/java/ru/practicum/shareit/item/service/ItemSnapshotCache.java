@@ -0,0 +1,156 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.jmx.export.annotation.ManagedAttribute;
+import org.springframework.jmx.export.annotation.ManagedOperation;
+import org.springframework.jmx.export.annotation.ManagedResource;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Read-through cache of item snapshots bounded by size and time to live.
+ * When the cache grows over the limit expired entries are dropped first, then the oldest ones
+ * until a tenth of the capacity is free again.
+ * A value loaded while its key was invalidated is returned but not cached.
+ * Items of a deleted user are evicted on {@link UserDeletedEvent}.
+ */
+@Component
+@ManagedResource(objectName = "ru.practicum.shareit:type=Cache,name=itemSnapshots")
+public class ItemSnapshotCache {
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoClock;
+    private final ConcurrentMap<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public ItemSnapshotCache(@Value("${shareit.item-cache.max-size:10000}") int maxSize,
+                             @Value("${shareit.item-cache.ttl:10m}") Duration ttl) {
+        this(maxSize, ttl, System::nanoTime);
+    }
+
+    public ItemSnapshotCache(int maxSize, Duration ttl, LongSupplier nanoClock) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+        this.nanoClock = nanoClock;
+    }
+
+    public Optional<ItemSnapshot> get(long itemId, Supplier<Optional<ItemSnapshot>> loader) {
+        final long now = nanoClock.getAsLong();
+        final Entry entry = entries.get(itemId);
+        if (entry != null) {
+            if (!entry.isExpired(now, ttlNanos)) {
+                hits.incrementAndGet();
+                return Optional.of(entry.getSnapshot());
+            }
+            if (entries.remove(itemId, entry)) {
+                evictions.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        final long invalidationsBefore = invalidations.get();
+        final Optional<ItemSnapshot> loaded = loader.get();
+        if (loaded.isPresent() && invalidations.get() == invalidationsBefore) {
+            entries.put(itemId, new Entry(loaded.get(), now));
+            if (entries.size() > maxSize) {
+                evict();
+            }
+        }
+        return loaded;
+    }
+
+    public void invalidate(long itemId) {
+        invalidations.incrementAndGet();
+        entries.remove(itemId);
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        invalidations.incrementAndGet();
+        entries.values().removeIf(entry -> entry.getSnapshot().getOwnerId() == event.getId());
+    }
+
+    @ManagedOperation
+    public void clear() {
+        invalidations.incrementAndGet();
+        entries.clear();
+    }
+
+    @ManagedAttribute
+    public long getHits() {
+        return hits.get();
+    }
+
+    @ManagedAttribute
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @ManagedAttribute
+    public long getEvictions() {
+        return evictions.get();
+    }
+
+    @ManagedAttribute
+    public int getSize() {
+        return entries.size();
+    }
+
+    private synchronized void evict() {
+        final long now = nanoClock.getAsLong();
+        for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+            if (entry.getValue().isExpired(now, ttlNanos) && entries.remove(entry.getKey(), entry.getValue())) {
+                evictions.incrementAndGet();
+            }
+        }
+        final int excess = entries.size() - (maxSize - maxSize / 10);
+        if (excess > 0) {
+            entries.entrySet().stream()
+                    .sorted(Comparator.comparingLong(entry -> entry.getValue().getLoadedAt()))
+                    .limit(excess)
+                    .forEach(entry -> {
+                        if (entries.remove(entry.getKey(), entry.getValue())) {
+                            evictions.incrementAndGet();
+                        }
+                    });
+        }
+    }
+
+    private static final class Entry {
+        private final ItemSnapshot snapshot;
+        private final long loadedAt;
+
+        private Entry(ItemSnapshot snapshot, long loadedAt) {
+            this.snapshot = snapshot;
+            this.loadedAt = loadedAt;
+        }
+
+        ItemSnapshot getSnapshot() {
+            return snapshot;
+        }
+
+        long getLoadedAt() {
+            return loadedAt;
+        }
+
+        boolean isExpired(long now, long ttlNanos) {
+            return now - loadedAt >= ttlNanos;
+        }
+    }
+}
@@ -3,11 +3,14 @@ package ru.practicum.shareit.request;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
+import java.util.List;
 import java.util.stream.Collectors;
 
 @Service
@@ -47,4 +50,8 @@ public class ItemRequestMapper {
                 .items(itemRequest.getItems().stream().map(itemMapper::toDto).collect(Collectors.toList()))
                 .build();
     }
+
+    public List<ItemDto> toItemDtos(List<Item> items) {
+        return items.stream().map(itemMapper::toDto).collect(Collectors.toList());
+    }
 }
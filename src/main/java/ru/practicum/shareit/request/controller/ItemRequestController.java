@@ -3,18 +3,22 @@ package ru.practicum.shareit.request.controller;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.dto.ItemDto;
 import ru.practicum.shareit.request.ItemRequestMapper;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
+import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
+import ru.practicum.shareit.user.principal.SharerUserId;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Positive;
@@ -29,6 +33,7 @@ import java.util.stream.Collectors;
 @RestController
 @RequestMapping(path = "/requests")
 public class ItemRequestController {
+    private static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "created", "id");
     private final ItemRequestService itemRequestService;
     private final ItemRequestMapper itemRequestMapper;
 
@@ -40,14 +45,14 @@ public class ItemRequestController {
 
     @PostMapping
     public ItemRequestDto create(
-            @RequestHeader("X-Sharer-User-Id") long userId,
+            @SharerUserId long userId,
             @RequestBody @Valid ItemRequestDto requestDto
     ) {
         return itemRequestMapper.toDto(itemRequestService.create(itemRequestMapper.fromCreateRequest(userId, requestDto)));
     }
 
     @GetMapping
-    public List<ItemRequestDto> getByRequester(@RequestHeader("X-Sharer-User-Id") long requesterId) {
+    public List<ItemRequestDto> getByRequester(@SharerUserId long requesterId) {
         return itemRequestService.getByRequester(requesterId)
                 .stream()
                 .map(itemRequestMapper::toDtoWithItems)
@@ -55,27 +60,49 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestDto> getByRequester(
-            @RequestHeader("X-Sharer-User-Id") long requesterId,
+    public ResponseEntity<List<ItemRequestDto>> getByRequester(
+            @SharerUserId long requesterId,
             @RequestParam(defaultValue = "0") @PositiveOrZero int from,
-            @RequestParam(defaultValue = "10") @Positive int size
+            @RequestParam(defaultValue = "10") @Positive int size,
+            @RequestParam(required = false) String cursor
     ) {
-        return itemRequestService.getByRequester(
+        final List<ItemRequest> requests = cursor == null ?
+                itemRequestService.getByRequester(
                         requesterId,
-                        PageRequest.of(from / size, size, Sort.by("created").descending())
-                )
-                .stream()
-                .map(itemRequestMapper::toDtoWithItems)
-                .collect(Collectors.toList());
+                        PageRequest.of(from / size, size, NEWEST_FIRST)
+                ) :
+                itemRequestService.getByRequester(
+                        requesterId,
+                        cursor.isEmpty() ? null : SeekCursor.decode(cursor),
+                        size
+                );
+        final ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (requests.size() == size) {
+            final ItemRequest last = requests.get(size - 1);
+            response.header(SeekCursor.NEXT_CURSOR, new SeekCursor(last.getCreated(), last.getId()).encode());
+        }
+        return response.body(
+                requests.stream()
+                        .map(itemRequestMapper::toDtoWithItems)
+                        .collect(Collectors.toList())
+        );
     }
 
     @GetMapping("/{requestId}")
     public ItemRequestDto get(
-            @RequestHeader("X-Sharer-User-Id") long requesterId,
+            @SharerUserId long requesterId,
             @PathVariable @Positive long requestId
     ) {
         return itemRequestMapper.toDtoWithItems(
                 itemRequestService.get(requesterId, requestId)
         );
     }
+
+    @GetMapping("/{requestId}/suggestions")
+    public List<ItemDto> getSuggestions(
+            @SharerUserId long requesterId,
+            @PathVariable @Positive long requestId
+    ) {
+        return itemRequestMapper.toItemDtos(itemRequestService.getSuggestions(requesterId, requestId));
+    }
 }
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.request.model;
+
+/**
+ * Request columns needed to build the in-memory matcher of open requests.
+ */
+public interface OpenRequestView {
+    long getId();
+
+    String getDescription();
+
+    long getRequesterId();
+}
@@ -1,18 +1,54 @@
 package ru.practicum.shareit.request.repository;
 
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.OpenRequestView;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long> {
 
-    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(Long requesterId);
+    @Query("select distinct r from ItemRequest r join fetch r.requester left join fetch r.items"
+            + " where r.requester.id = :requesterId order by r.created desc")
+    List<ItemRequest> findAllByRequesterIdOrderByCreatedDesc(@Param("requesterId") Long requesterId);
 
-    Page<ItemRequest> findByRequesterIdIsNot(Long requesterId, PageRequest pageRequest);
+    /**
+     * Requests of a page with their requesters and items, in one statement whatever the page size.
+     */
+    @Query("select distinct r from ItemRequest r join fetch r.requester left join fetch r.items where r.id in :ids")
+    List<ItemRequest> findWithItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @EntityGraph(attributePaths = "requester")
+    List<ItemRequest> findAllBy(Pageable pageable);
+
+    Slice<ItemRequest> findByRequesterIdIsNot(Long requesterId, Pageable pageable);
+
+    @Query("select r from ItemRequest r where r.requester.id <> :requesterId"
+            + " and (r.created < :created or (r.created = :created and r.id < :id))"
+            + " order by r.created desc, r.id desc")
+    List<ItemRequest> findByRequesterIdIsNotBefore(@Param("requesterId") long requesterId,
+                                                   @Param("created") LocalDateTime created, @Param("id") long id,
+                                                   Pageable pageable);
+
+    @Query("select r.id as id, r.description as description, r.requester.id as requesterId from ItemRequest r"
+            + " where not exists (select i.id from Item i where i.request = r)")
+    List<OpenRequestView> findAllOpen();
+
+    /**
+     * Those of the requests that still exist and have not been suggested the item yet.
+     */
+    @Query("select r.id from ItemRequest r where r.id in :ids"
+            + " and not exists (select s.id from RequestSuggestion s where s.request = r and s.item.id = :itemId)")
+    Set<Long> findIdsNotSuggestedItem(@Param("ids") Collection<Long> ids, @Param("itemId") long itemId);
 
     Optional<ItemRequest> findFirstByIdAndRequesterId(long requesterId, long id);
 }
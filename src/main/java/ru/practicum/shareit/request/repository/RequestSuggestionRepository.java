@@ -0,0 +1,13 @@
+package ru.practicum.shareit.request.repository;
+
+import org.springframework.data.jpa.repository.EntityGraph;
+import org.springframework.data.jpa.repository.JpaRepository;
+import ru.practicum.shareit.request.model.RequestSuggestion;
+
+import java.util.List;
+
+public interface RequestSuggestionRepository extends JpaRepository<RequestSuggestion, Long> {
+
+    @EntityGraph(attributePaths = "item")
+    List<RequestSuggestion> findAllByRequestIdOrderByScoreDescIdAsc(long requestId);
+}
@@ -0,0 +1,238 @@
+package ru.practicum.shareit.request.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+import ru.practicum.shareit.user.model.UserUpdatedEvent;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+/**
+ * Ring buffer of the latest requests with their answering items, newest first, as ordered by /requests/all.
+ * Loaded from the database at startup and kept current by the request and item services after commit
+ * and by user events. Pages that fit into the buffer are answered without the database; once older
+ * requests have been pushed out, pages reaching past the buffer are left to the repository.
+ * <p>
+ * Returned requests are detached copies with the requester and items filled in.
+ */
+@Component
+public class ItemRequestFeed {
+    static final Sort NEWEST_FIRST = Sort.by(Sort.Direction.DESC, "created", "id");
+    private static final Comparator<Entry> ORDER = Comparator.comparing(Entry::getCreated)
+            .thenComparingLong(Entry::getId)
+            .reversed();
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemRepository itemRepository;
+    private final Entry[] entries;
+    private int head;
+    private int size;
+    private boolean truncated;
+
+    @Autowired
+    public ItemRequestFeed(ItemRequestRepository itemRequestRepository, ItemRepository itemRepository,
+                           @Value("${shareit.request-feed.size:1000}") int capacity) {
+        this.itemRequestRepository = itemRequestRepository;
+        this.itemRepository = itemRepository;
+        this.entries = new Entry[capacity];
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        final List<ItemRequest> requests = itemRequestRepository.findAllBy(PageRequest.of(0, entries.length, NEWEST_FIRST));
+        final Map<Long, List<ItemSnapshot>> items = requests.isEmpty() ? Map.of() :
+                itemRepository.findSnapshotsByRequestIdIn(
+                        requests.stream().map(ItemRequest::getId).collect(Collectors.toList())
+                ).stream().collect(Collectors.groupingBy(ItemSnapshot::getRequestId));
+        synchronized (this) {
+            head = 0;
+            size = 0;
+            truncated = requests.size() == entries.length;
+            for (ItemRequest request : requests) {
+                entries[size++] = Entry.of(request, items.getOrDefault(request.getId(), List.of()));
+            }
+        }
+    }
+
+    /**
+     * Adds a committed request with the items already answering it. Items are loaded under the feed lock:
+     * an item committed after the load reaches {@link #putItem} only once the entry is in place.
+     */
+    public synchronized void add(ItemRequest request) {
+        insert(Entry.of(request, itemRepository.findSnapshotsByRequestIdIn(List.of(request.getId()))));
+    }
+
+    /**
+     * Adds a new item to or refreshes an item of its request, if the request is in the buffer.
+     */
+    public void putItem(ItemSnapshot item) {
+        if (item.getRequestId() != null) {
+            update(entry -> entry.getId() == item.getRequestId(), entry -> entry.withItem(item));
+        }
+    }
+
+    @EventListener
+    public void onUserUpdated(UserUpdatedEvent event) {
+        update(entry -> entry.getRequesterId() == event.getId(),
+                entry -> entry.withRequester(event.getName(), event.getEmail()));
+    }
+
+    @EventListener
+    public synchronized void onUserDeleted(UserDeletedEvent event) {
+        final List<Entry> left = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            final Entry entry = at(i);
+            if (entry.getRequesterId() != event.getId()) {
+                left.add(entry.withoutItemsOf(event.getId()));
+            }
+        }
+        Arrays.fill(entries, null);
+        head = 0;
+        size = 0;
+        for (Entry entry : left) {
+            entries[size++] = entry;
+        }
+    }
+
+    /**
+     * Offset page of requests of other users, or empty when it reaches past the buffered requests.
+     */
+    public Optional<List<ItemRequest>> page(long viewerId, long offset, int limit) {
+        return collect(viewerId, entry -> true, offset, limit);
+    }
+
+    /**
+     * Page of requests of other users after the cursor, or empty when it reaches past the buffered requests.
+     */
+    public Optional<List<ItemRequest>> pageBefore(long viewerId, SeekCursor cursor, int limit) {
+        final LocalDateTime created = cursor.getTimestamp();
+        return collect(viewerId,
+                entry -> entry.getCreated().isBefore(created)
+                        || entry.getCreated().equals(created) && entry.getId() < cursor.getId(),
+                0, limit);
+    }
+
+    private Optional<List<ItemRequest>> collect(long viewerId, Predicate<Entry> from, long offset, int limit) {
+        final List<ItemRequest> page = new ArrayList<>(limit);
+        long skipped = 0;
+        synchronized (this) {
+            for (int i = 0; i < size && page.size() < limit; i++) {
+                final Entry entry = at(i);
+                if (entry.getRequesterId() == viewerId || !from.test(entry)) {
+                    continue;
+                }
+                if (skipped < offset) {
+                    skipped++;
+                    continue;
+                }
+                page.add(entry.toRequest());
+            }
+            if (page.size() < limit && truncated) {
+                return Optional.empty();
+            }
+        }
+        return Optional.of(page);
+    }
+
+    private synchronized void insert(Entry entry) {
+        int position = 0;
+        while (position < size && ORDER.compare(at(position), entry) < 0) {
+            position++;
+        }
+        if (size == entries.length) {
+            if (position == size) {
+                return;
+            }
+            size--;
+            truncated = true;
+        }
+        head = index(-1);
+        size++;
+        for (int i = 0; i < position; i++) {
+            entries[index(i)] = at(i + 1);
+        }
+        entries[index(position)] = entry;
+    }
+
+    private synchronized void update(Predicate<Entry> filter, UnaryOperator<Entry> change) {
+        for (int i = 0; i < size; i++) {
+            final Entry entry = at(i);
+            if (filter.test(entry)) {
+                entries[index(i)] = change.apply(entry);
+            }
+        }
+    }
+
+    private Entry at(int position) {
+        return entries[index(position)];
+    }
+
+    private int index(int position) {
+        return Math.floorMod(head + position, entries.length);
+    }
+
+    @lombok.Value
+    private static class Entry {
+        long id;
+        String description;
+        LocalDateTime created;
+        long requesterId;
+        String requesterName;
+        String requesterEmail;
+        List<ItemSnapshot> items;
+
+        static Entry of(ItemRequest request, List<ItemSnapshot> items) {
+            final User requester = request.getRequester();
+            return new Entry(request.getId(), request.getDescription(), request.getCreated(), requester.getId(),
+                    requester.getName(), requester.getEmail(), List.copyOf(items));
+        }
+
+        Entry withItem(ItemSnapshot item) {
+            final List<ItemSnapshot> changed = new ArrayList<>(items);
+            changed.removeIf(existing -> existing.getId() == item.getId());
+            changed.add(item);
+            changed.sort(Comparator.comparingLong(ItemSnapshot::getId));
+            return new Entry(id, description, created, requesterId, requesterName, requesterEmail,
+                    List.copyOf(changed));
+        }
+
+        Entry withRequester(String name, String email) {
+            return new Entry(id, description, created, requesterId, name, email, items);
+        }
+
+        Entry withoutItemsOf(long ownerId) {
+            return new Entry(id, description, created, requesterId, requesterName, requesterEmail,
+                    items.stream().filter(item -> item.getOwnerId() != ownerId).collect(Collectors.toUnmodifiableList()));
+        }
+
+        ItemRequest toRequest() {
+            return ItemRequest.builder()
+                    .id(id)
+                    .description(description)
+                    .created(created)
+                    .requester(User.builder().id(requesterId).name(requesterName).email(requesterEmail).build())
+                    .items(items.stream().map(ItemSnapshot::toItem).collect(Collectors.toList()))
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package ru.practicum.shareit.request.service;
+
+import lombok.Value;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.search.TextTokenizer;
+import ru.practicum.shareit.request.model.OpenRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.stream.Stream;
+
+/**
+ * Inverted index over descriptions of open requests, that is requests nobody has answered with an item yet.
+ * A new item is matched by the words of its name and description cut to {@link #STEM_LENGTH} letters,
+ * which is a crude but cheap way to match word forms. A request scores the idf-weighted share of its
+ * words found in the item and is suggested from {@link #MIN_COVERAGE}. A word present in more than
+ * {@link #MAX_POSTINGS} requests is matched against the newest of them only, so a match walks bounded
+ * posting lists while common words still count on both sides of the coverage.
+ */
+@Component
+public class ItemRequestMatcher {
+    public static final int TOP_SIZE = 5;
+    static final int STEM_LENGTH = 6;
+    private static final int MAX_POSTINGS = 200;
+    private static final int MIN_WORD_LENGTH = 3;
+    private static final double MIN_COVERAGE = 0.3;
+    private static final Comparator<Match> BY_SCORE = Comparator.comparingDouble(Match::getScore)
+            .thenComparingLong(Match::getRequestId);
+
+    private final ItemRequestRepository itemRequestRepository;
+    private final ConcurrentMap<String, Postings> postings = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Document> documents = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Set<Long>> requestsByRequester = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ItemRequestMatcher(ItemRequestRepository itemRequestRepository) {
+        this.itemRequestRepository = itemRequestRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        for (OpenRequestView view : itemRequestRepository.findAllOpen()) {
+            index(view.getId(), view.getRequesterId(), view.getDescription());
+        }
+    }
+
+    public synchronized void index(long requestId, long requesterId, String description) {
+        final Set<String> stems = stems(description);
+        if (stems.isEmpty() || documents.putIfAbsent(requestId, new Document(requesterId, Set.copyOf(stems))) != null) {
+            return;
+        }
+        stems.forEach(stem -> postings.computeIfAbsent(stem, key -> new Postings()).add(requestId));
+        requestsByRequester.computeIfAbsent(requesterId, key -> ConcurrentHashMap.newKeySet()).add(requestId);
+    }
+
+    /**
+     * Closes the request, usually because an item answered it.
+     */
+    public synchronized void remove(long requestId) {
+        final Document document = documents.remove(requestId);
+        if (document == null) {
+            return;
+        }
+        for (String stem : document.getStems()) {
+            postings.computeIfPresent(stem, (key, ids) -> ids.remove(requestId) ? ids : null);
+        }
+        requestsByRequester.computeIfPresent(document.getRequesterId(), (key, ids) -> {
+            ids.remove(requestId);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    @EventListener
+    public void onUserDeleted(UserDeletedEvent event) {
+        final Set<Long> requestIds = requestsByRequester.get(event.getId());
+        if (requestIds != null) {
+            List.copyOf(requestIds).forEach(this::remove);
+        }
+    }
+
+    /**
+     * Best open requests of other users for an item, best first.
+     */
+    public List<Match> match(long ownerId, String name, String description) {
+        final Set<String> stems = stems(name);
+        stems.addAll(stems(description));
+        final long documentCount = documents.size();
+        final Map<Long, Double> shared = new HashMap<>();
+        for (String stem : stems) {
+            final Postings ids = postings.get(stem);
+            if (ids == null) {
+                continue;
+            }
+            final double idf = idf(documentCount, ids.size);
+            ids.newest().forEach(id -> shared.merge(id, idf, Double::sum));
+        }
+        final PriorityQueue<Match> top = new PriorityQueue<>(BY_SCORE);
+        shared.forEach((requestId, weight) -> {
+            final Document document = documents.get(requestId);
+            if (document == null || document.getRequesterId() == ownerId) {
+                return;
+            }
+            final double coverage = weight / mass(document, documentCount);
+            if (coverage < MIN_COVERAGE) {
+                return;
+            }
+            top.add(new Match(requestId, coverage));
+            if (top.size() > TOP_SIZE) {
+                top.poll();
+            }
+        });
+        final List<Match> result = new ArrayList<>(top);
+        result.sort(BY_SCORE.reversed());
+        return result;
+    }
+
+    private double mass(Document document, long documentCount) {
+        double mass = 0;
+        for (String stem : document.getStems()) {
+            final Postings ids = postings.get(stem);
+            mass += idf(documentCount, ids == null ? 1 : ids.size);
+        }
+        return mass;
+    }
+
+    private static double idf(long documentCount, long documentFrequency) {
+        return Math.log(1 + (double) documentCount / documentFrequency);
+    }
+
+    private static Set<String> stems(String text) {
+        final Set<String> stems = new HashSet<>();
+        for (String token : TextTokenizer.tokenize(text)) {
+            if (token.length() >= MIN_WORD_LENGTH) {
+                stems.add(token.length() > STEM_LENGTH ? token.substring(0, STEM_LENGTH) : token);
+            }
+        }
+        return stems;
+    }
+
+    @Value
+    public static class Match {
+        long requestId;
+        double score;
+    }
+
+    /**
+     * Request ids of a word, newest first. Changed only under the matcher lock; the size is kept
+     * separately because a skip list counts its elements one by one.
+     */
+    private static final class Postings {
+        private final NavigableSet<Long> ids = new ConcurrentSkipListSet<>(Comparator.reverseOrder());
+        private volatile int size;
+
+        void add(long requestId) {
+            if (ids.add(requestId)) {
+                size++;
+            }
+        }
+
+        /**
+         * Removes the request and tells whether any are left.
+         */
+        boolean remove(long requestId) {
+            if (ids.remove(requestId)) {
+                size--;
+            }
+            return size > 0;
+        }
+
+        Stream<Long> newest() {
+            return ids.stream().limit(MAX_POSTINGS);
+        }
+    }
+
+    @Value
+    private static class Document {
+        long requesterId;
+        Set<String> stems;
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.request.service;
 
 import org.springframework.data.domain.PageRequest;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.model.ItemRequest;
 
 import java.util.List;
@@ -12,7 +14,24 @@ public interface ItemRequestService {
 
     List<ItemRequest> getByRequester(long requesterId, PageRequest pageRequest);
 
+    /**
+     * Requests of other users created before the cursor, newest first; a null cursor starts from the newest.
+     */
+    List<ItemRequest> getByRequester(long requesterId, SeekCursor cursor, int size);
+
     ItemRequest get(long requesterId, long requestId);
 
     ItemRequest get(long requestId);
+
+    /**
+     * Records the item as a suggestion for the best matching open requests of other users
+     * and closes the request the item answers, if any. Called once the item is committed and runs
+     * in its own transaction; requests deleted meanwhile or already suggested the item are skipped.
+     */
+    void recordSuggestions(Item item);
+
+    /**
+     * Items suggested for the request, best match first; only its requester may see them.
+     */
+    List<Item> getSuggestions(long requesterId, long requestId);
 }
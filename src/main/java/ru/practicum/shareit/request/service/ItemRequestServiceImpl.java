@@ -3,38 +3,63 @@ package ru.practicum.shareit.request.service;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.common.TransactionHooks;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.exception.ItemRequestNotFound;
 import ru.practicum.shareit.request.exception.RequesterNotFound;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Service
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final UserService userService;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemRequestFeed itemRequestFeed;
+    private final ItemRequestMatcher itemRequestMatcher;
+    private final RequestSuggestionRepository requestSuggestionRepository;
 
     @Autowired
-    public ItemRequestServiceImpl(UserService userService, ItemRequestRepository itemRequestRepository) {
+    public ItemRequestServiceImpl(UserService userService, ItemRequestRepository itemRequestRepository,
+                                  ItemRequestFeed itemRequestFeed, ItemRequestMatcher itemRequestMatcher,
+                                  RequestSuggestionRepository requestSuggestionRepository) {
         this.userService = userService;
         this.itemRequestRepository = itemRequestRepository;
+        this.itemRequestFeed = itemRequestFeed;
+        this.itemRequestMatcher = itemRequestMatcher;
+        this.requestSuggestionRepository = requestSuggestionRepository;
     }
 
     @Override
     @Transactional
     public ItemRequest create(ItemRequest request) {
         final User user = userService.getUser(request.getRequester().getId());
-        return itemRequestRepository.save(
+        final ItemRequest saved = itemRequestRepository.save(
                 request.toBuilder()
                         .requester(user)
                         .created(LocalDateTime.now())
                         .build()
         );
+        TransactionHooks.afterCommit(() -> {
+            itemRequestFeed.add(saved);
+            itemRequestMatcher.index(saved.getId(), user.getId(), saved.getDescription());
+        });
+        return saved;
     }
 
     @Override
@@ -46,13 +71,52 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestRepository.findAllByRequesterIdOrderByCreatedDesc(requesterId);
     }
 
+    /**
+     * Not transactional: pages within {@link ItemRequestFeed} do not need a connection.
+     */
     @Override
-    @Transactional(readOnly = true)
     public List<ItemRequest> getByRequester(long requesterId, PageRequest pageRequest) {
         if (!userService.isExist(requesterId)) {
             throw new RequesterNotFound(String.format("Not found requester by %s", requesterId));
         }
-        return itemRequestRepository.findByRequesterIdIsNot(requesterId, pageRequest).toList();
+        final Optional<List<ItemRequest>> fromFeed = pageRequest.getSort().equals(ItemRequestFeed.NEWEST_FIRST) ?
+                itemRequestFeed.page(requesterId, pageRequest.getOffset(), pageRequest.getPageSize()) :
+                Optional.empty();
+        return fromFeed.orElseGet(
+                () -> withItems(itemRequestRepository.findByRequesterIdIsNot(requesterId, pageRequest).getContent())
+        );
+    }
+
+    @Override
+    public List<ItemRequest> getByRequester(long requesterId, SeekCursor cursor, int size) {
+        if (cursor == null) {
+            return getByRequester(requesterId, PageRequest.of(0, size, ItemRequestFeed.NEWEST_FIRST));
+        }
+        if (!userService.isExist(requesterId)) {
+            throw new RequesterNotFound(String.format("Not found requester by %s", requesterId));
+        }
+        return itemRequestFeed.pageBefore(requesterId, cursor, size).orElseGet(
+                () -> withItems(itemRequestRepository.findByRequesterIdIsNotBefore(
+                        requesterId, cursor.getTimestamp(), cursor.getId(), PageRequest.of(0, size)
+                ))
+        );
+    }
+
+    /**
+     * Reloads a page with its items by id. Fetching the items in the page query would page in memory,
+     * and batch fetching them takes a statement per {@code default_batch_fetch_size} requests.
+     */
+    private List<ItemRequest> withItems(List<ItemRequest> page) {
+        if (page.isEmpty()) {
+            return page;
+        }
+        final Map<Long, ItemRequest> loaded = itemRequestRepository.findWithItemsByIdIn(
+                page.stream().map(ItemRequest::getId).collect(Collectors.toList())
+        ).stream().collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+        return page.stream()
+                .map(request -> loaded.get(request.getId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
     }
 
     @Override
@@ -70,4 +134,52 @@ public class ItemRequestServiceImpl implements ItemRequestService {
         return itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ItemRequestNotFound(String.format("Not found item request by id %s", requestId)));
     }
+
+    @Override
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public void recordSuggestions(Item item) {
+        final Long answeredId = item.getRequest() == null ? null : item.getRequest().getId();
+        if (answeredId != null) {
+            itemRequestMatcher.remove(answeredId);
+        }
+        if (!Boolean.TRUE.equals(item.getAvailable())) {
+            return;
+        }
+        final List<ItemRequestMatcher.Match> matches = itemRequestMatcher
+                .match(item.getOwner().getId(), item.getName(), item.getDescription())
+                .stream()
+                .filter(match -> !Long.valueOf(match.getRequestId()).equals(answeredId))
+                .collect(Collectors.toList());
+        if (matches.isEmpty()) {
+            return;
+        }
+        final Set<Long> requestIds = itemRequestRepository.findIdsNotSuggestedItem(
+                matches.stream().map(ItemRequestMatcher.Match::getRequestId).collect(Collectors.toList()),
+                item.getId()
+        );
+        final LocalDateTime now = LocalDateTime.now();
+        final List<RequestSuggestion> suggestions = matches.stream()
+                .filter(match -> requestIds.contains(match.getRequestId()))
+                .map(match -> RequestSuggestion.builder()
+                        .request(itemRequestRepository.getReferenceById(match.getRequestId()))
+                        .item(item)
+                        .score(match.getScore())
+                        .created(now)
+                        .build())
+                .collect(Collectors.toList());
+        requestSuggestionRepository.saveAllAndFlush(suggestions);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<Item> getSuggestions(long requesterId, long requestId) {
+        final ItemRequest request = get(requesterId, requestId);
+        if (request.getRequester().getId() != requesterId) {
+            throw new ItemRequestNotFound(String.format("Not found item request by id %s", requestId));
+        }
+        return requestSuggestionRepository.findAllByRequestIdOrderByScoreDescIdAsc(requestId)
+                .stream()
+                .map(RequestSuggestion::getItem)
+                .collect(Collectors.toList());
+    }
 }
@@ -1,7 +1,15 @@
 package ru.practicum.shareit.user.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PatchMapping;
@@ -9,12 +17,22 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Positive;
+import javax.validation.constraints.PositiveOrZero;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
@@ -22,24 +40,70 @@ import java.util.stream.Collectors;
 @RequestMapping(
         path = "/users"
 )
+@Validated
 public class UserController {
+    public static final String APPLICATION_NDJSON_VALUE = "application/x-ndjson";
+    private static final Sort BY_ID = Sort.by("id");
     private final UserService userService;
     private final UserMapper userMapper;
+    private final UserImporter userImporter;
+    private final ObjectWriter writer;
 
     @Autowired
-    public UserController(UserService userService, UserMapper userMapper) {
+    public UserController(UserService userService, UserMapper userMapper, UserImporter userImporter,
+                          ObjectMapper objectMapper) {
         this.userService = userService;
         this.userMapper = userMapper;
+        this.userImporter = userImporter;
+        this.writer = objectMapper.writerFor(UserDto.class).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
     }
 
+    /**
+     * All users as a JSON array written while they are read from the database; only without paging parameters.
+     */
+    @GetMapping(params = {"!from", "!size", "!afterId"})
+    public ResponseEntity<StreamingResponseBody> getUsers() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(out -> writeUsers(writer.writeValuesAsArray(out), 0));
+    }
+
+    /**
+     * A page of users by offset, or after the given id when afterId is set. Any paging parameter lands here,
+     * so from or afterId without size is rejected instead of streaming every user.
+     */
     @GetMapping
-    public List<UserDto> getUsers() {
-        return userService.getAllUsers()
-                .stream()
+    public List<UserDto> getUsers(@RequestParam(defaultValue = "0") @PositiveOrZero int from,
+                                  @RequestParam @Positive int size,
+                                  @RequestParam(required = false) @PositiveOrZero Long afterId) {
+        final List<User> users = afterId == null ?
+                userService.getUsers(PageRequest.of(from / size, size, BY_ID)) :
+                userService.getUsersAfter(afterId, size);
+        return users.stream()
                 .map(userMapper::toDto)
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Users after the given id as newline-delimited JSON, one user per line.
+     */
+    @GetMapping(value = "/stream", produces = APPLICATION_NDJSON_VALUE)
+    public StreamingResponseBody streamUsers(@RequestParam(defaultValue = "0") @PositiveOrZero long afterId) {
+        return out -> writeUsers(writer.withRootValueSeparator("\n").writeValues(out), afterId);
+    }
+
+    private void writeUsers(SequenceWriter sequence, long afterId) throws IOException {
+        try (sequence) {
+            userService.forEachUser(afterId, user -> {
+                try {
+                    sequence.write(userMapper.toDto(user));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
     @GetMapping(value = "/{id}")
     public UserDto getUser(@PathVariable("id") long userId) {
         return userMapper.toDto(
@@ -77,4 +141,14 @@ public class UserController {
         );
     }
 
+    /**
+     * Creates users from newline-delimited JSON, one user per line.
+     */
+    @PostMapping(value = "/bulk",
+            consumes = APPLICATION_NDJSON_VALUE,
+            produces = MediaType.APPLICATION_JSON_VALUE
+    )
+    public UserImportResultDto importUsers(InputStream body) throws IOException {
+        return userImporter.importUsers(body);
+    }
 }
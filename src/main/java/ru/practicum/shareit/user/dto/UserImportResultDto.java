@@ -0,0 +1,25 @@
+package ru.practicum.shareit.user.dto;
+
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.jackson.Jacksonized;
+
+import java.util.List;
+
+@Data
+@Builder
+@Jacksonized
+public class UserImportResultDto {
+    private final long received;
+    private final long created;
+    private final long rejected;
+    private final List<LineError> errors;
+
+    @Data
+    @Builder
+    @Jacksonized
+    public static class LineError {
+        private final long line;
+        private final String message;
+    }
+}
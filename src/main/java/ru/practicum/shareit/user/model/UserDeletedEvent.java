@@ -0,0 +1,11 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.Value;
+
+/**
+ * Published after a committed user deletion; the user's requests, items and comments are gone too.
+ */
+@Value
+public class UserDeletedEvent {
+    long id;
+}
@@ -0,0 +1,10 @@
+package ru.practicum.shareit.user.model;
+
+/**
+ * User columns needed to build the in-memory email index.
+ */
+public interface UserEmailView {
+    long getId();
+
+    String getEmail();
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.user.model;
+
+import lombok.Value;
+
+/**
+ * Published after a committed change of the user name or email.
+ */
+@Value
+public class UserUpdatedEvent {
+    long id;
+    String name;
+    String email;
+}
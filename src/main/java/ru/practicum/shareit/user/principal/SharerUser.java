@@ -0,0 +1,51 @@
+package ru.practicum.shareit.user.principal;
+
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import ru.practicum.shareit.user.model.User;
+
+import java.util.Optional;
+
+/**
+ * User that sent the current request, resolved once from the X-Sharer-User-Id header.
+ * The user entity is loaded on first demand and then shared by all services of the request.
+ */
+public class SharerUser {
+    public static final String HEADER = "X-Sharer-User-Id";
+    private static final String ATTRIBUTE = SharerUser.class.getName();
+
+    private final long id;
+    private User user;
+
+    SharerUser(long id) {
+        this.id = id;
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    /**
+     * Principal of the current request if it belongs to the given user.
+     */
+    public static Optional<SharerUser> current(long userId) {
+        final RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return Optional.empty();
+        }
+        final SharerUser principal = (SharerUser) attributes.getAttribute(ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        return principal != null && principal.id == userId ? Optional.of(principal) : Optional.empty();
+    }
+
+    public Optional<User> getUser() {
+        return Optional.ofNullable(user);
+    }
+
+    public void setUser(User user) {
+        this.user = user;
+    }
+
+    void bind(RequestAttributes attributes) {
+        attributes.setAttribute(ATTRIBUTE, this, RequestAttributes.SCOPE_REQUEST);
+    }
+}
@@ -0,0 +1,54 @@
+package ru.practicum.shareit.user.principal;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.MissingRequestHeaderException;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+import ru.practicum.shareit.user.exceptions.UserNotFoundException;
+import ru.practicum.shareit.user.service.UserService;
+
+/**
+ * Resolves {@link SharerUserId} parameters and binds the {@link SharerUser} of the request.
+ * The header is parsed and checked once even if several parameters ask for it.
+ */
+@Component
+public class SharerUserArgumentResolver implements HandlerMethodArgumentResolver {
+    private final UserService userService;
+
+    @Autowired
+    public SharerUserArgumentResolver(UserService userService) {
+        this.userService = userService;
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(SharerUserId.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) throws Exception {
+        final String header = webRequest.getHeader(SharerUser.HEADER);
+        if (header == null) {
+            throw new MissingRequestHeaderException(SharerUser.HEADER, parameter);
+        }
+        final long userId;
+        try {
+            userId = Long.parseLong(header.trim());
+        } catch (NumberFormatException e) {
+            throw new ServletRequestBindingException(String.format("Header %s must be a number", SharerUser.HEADER));
+        }
+        if (SharerUser.current(userId).isEmpty()) {
+            if (!userService.isExist(userId)) {
+                throw new UserNotFoundException(String.format("User with id = %s not found", userId));
+            }
+            new SharerUser(userId).bind(webRequest);
+        }
+        return userId;
+    }
+}
@@ -0,0 +1,15 @@
+package ru.practicum.shareit.user.principal;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds the id of the existing user from the X-Sharer-User-Id header.
+ * Unknown users are rejected before the handler is invoked.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface SharerUserId {
+}
@@ -1,13 +1,41 @@
 package ru.practicum.shareit.user.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserEmailView;
 
+import javax.persistence.QueryHint;
+import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
     Optional<User> getUserByEmail(String email);
+
+    @Query("select u.id from User u")
+    List<Long> findAllIds();
+
+    @Query("select u.id as id, u.email as email from User u")
+    List<UserEmailView> findAllEmails();
+
+    List<User> findAllBy(Pageable pageable);
+
+    List<User> findAllByIdGreaterThanOrderById(long afterId, Pageable pageable);
+
+    /**
+     * Users after the id in id order, read through a cursor.
+     * The constructor expression returns detached users, so the persistence context does not grow
+     * while the stream is consumed. Has to be consumed and closed inside a transaction.
+     */
+    @QueryHints(@QueryHint(name = org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("select new ru.practicum.shareit.user.model.User(u.id, u.name, u.email) from User u "
+            + "where u.id > :afterId order by u.id")
+    Stream<User> streamAllByIdGreaterThan(@Param("afterId") long afterId);
 }
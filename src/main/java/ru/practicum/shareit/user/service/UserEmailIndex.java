@@ -0,0 +1,93 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.exceptions.ConflictUserEmailException;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.Locale;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Case-insensitive index of taken emails, consulted before a user is written.
+ * A write first reserves the email, so concurrent writers of the same email conflict here
+ * instead of in the database. The reservation is bound to the user id after commit and
+ * released after rollback. Loaded from the users table at startup.
+ */
+@Component
+public class UserEmailIndex {
+    private final UserRepository userRepository;
+    private final ConcurrentMap<String, Claim> owners = new ConcurrentHashMap<>();
+
+    @Autowired
+    public UserEmailIndex(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        userRepository.findAllEmails().forEach(view -> {
+            final String key = normalize(view.getEmail());
+            owners.put(key, new Claim(key, view.getId()));
+        });
+    }
+
+    /**
+     * Takes the email for the user, {@code 0} standing for a user that is not saved yet.
+     *
+     * @throws ConflictUserEmailException if the email belongs to or is being taken by another user
+     */
+    public Claim reserve(String email, long userId) {
+        final String key = normalize(email);
+        final Claim claim = new Claim(key, userId);
+        final Claim existing = owners.putIfAbsent(key, claim);
+        if (existing == null) {
+            return claim;
+        }
+        if (userId != 0 && existing.getUserId() == userId) {
+            return claim;
+        }
+        throw new ConflictUserEmailException(String.format("User with email %s already exist", email));
+    }
+
+    /**
+     * Hands a reservation made for a new user over to the id it was saved with.
+     */
+    public void bind(Claim claim, long userId) {
+        owners.replace(claim.key, claim, new Claim(claim.key, userId));
+    }
+
+    /**
+     * Drops a reservation whose write did not commit.
+     */
+    public void release(Claim claim) {
+        owners.remove(claim.key, claim);
+    }
+
+    /**
+     * Frees the email if it still belongs to the user.
+     */
+    public void release(String email, long userId) {
+        owners.computeIfPresent(normalize(email), (key, claim) -> claim.getUserId() == userId ? null : claim);
+    }
+
+    public static String normalize(String email) {
+        return email.strip().toLowerCase(Locale.ROOT);
+    }
+
+    public static final class Claim {
+        private final String key;
+        private final long userId;
+
+        private Claim(String key, long userId) {
+            this.key = key;
+            this.userId = userId;
+        }
+
+        public long getUserId() {
+            return userId;
+        }
+    }
+}
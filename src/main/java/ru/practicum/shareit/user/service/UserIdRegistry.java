@@ -0,0 +1,87 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import javax.annotation.PostConstruct;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bitmap of existing user ids over the identity range.
+ * Lookups are lock-free and do not box; writes are serialized because growing copies the words.
+ * Loaded from the users table at startup and updated by the user service after commit.
+ * Removals are counted, so an id read from the database can be added back only if no user
+ * was removed meanwhile.
+ */
+@Component
+public class UserIdRegistry {
+    private static final int INITIAL_WORDS = 1024;
+    private static final long MAX_WORDS = Integer.MAX_VALUE - 8;
+
+    private final UserRepository userRepository;
+    private volatile AtomicLongArray words = new AtomicLongArray(INITIAL_WORDS);
+    private volatile long removals;
+
+    @Autowired
+    public UserIdRegistry(UserRepository userRepository) {
+        this.userRepository = userRepository;
+    }
+
+    @PostConstruct
+    public void rebuild() {
+        userRepository.findAllIds().forEach(this::add);
+    }
+
+    public boolean contains(long id) {
+        if (id < 0) {
+            return false;
+        }
+        final long word = id >>> 6;
+        final AtomicLongArray current = words;
+        return word < current.length() && (current.get((int) word) & (1L << id)) != 0;
+    }
+
+    public synchronized void add(long id) {
+        if (id < 0 || id >>> 6 >= MAX_WORDS) {
+            return;
+        }
+        final int word = (int) (id >>> 6);
+        if (word >= words.length()) {
+            grow(word);
+        }
+        words.getAndAccumulate(word, 1L << id, (bits, bit) -> bits | bit);
+    }
+
+    /**
+     * Adds an id found in the database unless a user was removed after {@link #removals()} returned
+     * {@code removalsBefore}; the removed user might be this one.
+     */
+    public synchronized void addUnlessRemoved(long id, long removalsBefore) {
+        if (removals == removalsBefore) {
+            add(id);
+        }
+    }
+
+    public long removals() {
+        return removals;
+    }
+
+    public synchronized void remove(long id) {
+        removals++;
+        final long word = id >>> 6;
+        if (id >= 0 && word < words.length()) {
+            words.getAndAccumulate((int) word, 1L << id, (bits, bit) -> bits & ~bit);
+        }
+    }
+
+    private void grow(int word) {
+        final AtomicLongArray current = words;
+        final AtomicLongArray grown = new AtomicLongArray((int) Math.min(Math.max(current.length() * 2L, word + 1L),
+                MAX_WORDS));
+        for (int i = 0; i < current.length(); i++) {
+            grown.set(i, current.get(i));
+        }
+        words = grown;
+    }
+}
@@ -0,0 +1,127 @@
+package ru.practicum.shareit.user.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.web.server.ResponseStatusException;
+import ru.practicum.shareit.user.UserMapper;
+import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
+import ru.practicum.shareit.user.model.User;
+
+import javax.validation.ConstraintViolation;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Reads newline-delimited users and saves them in chunks of {@link #CHUNK_SIZE}, one transaction per chunk.
+ * Lines that cannot be parsed, fail validation or carry a taken email are skipped and reported
+ * by line number; only the first {@link #MAX_REPORTED_ERRORS} of them are listed.
+ */
+@Service
+public class UserImporter {
+    static final int CHUNK_SIZE = 500;
+    static final int MAX_REPORTED_ERRORS = 100;
+
+    private final UserService userService;
+    private final UserMapper userMapper;
+    private final ObjectMapper objectMapper;
+    private final Validator validator;
+
+    @Autowired
+    public UserImporter(UserService userService, UserMapper userMapper, ObjectMapper objectMapper,
+                        Validator validator) {
+        this.userService = userService;
+        this.userMapper = userMapper;
+        this.objectMapper = objectMapper;
+        this.validator = validator;
+    }
+
+    public UserImportResultDto importUsers(InputStream body) throws IOException {
+        final Report report = new Report();
+        final List<User> users = new ArrayList<>(CHUNK_SIZE);
+        final List<Long> lines = new ArrayList<>(CHUNK_SIZE);
+        final BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        long lineNumber = 0;
+        for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            report.received++;
+            final Optional<User> user = parse(line, lineNumber, report);
+            if (user.isPresent()) {
+                users.add(user.get());
+                lines.add(lineNumber);
+            }
+            if (users.size() == CHUNK_SIZE) {
+                save(users, lines, report);
+            }
+        }
+        save(users, lines, report);
+        return report.toDto();
+    }
+
+    private Optional<User> parse(String line, long lineNumber, Report report) {
+        final UserDto userDto;
+        try {
+            userDto = objectMapper.readValue(line, UserDto.class);
+        } catch (JsonProcessingException e) {
+            report.reject(lineNumber, e.getOriginalMessage());
+            return Optional.empty();
+        }
+        final Set<ConstraintViolation<UserDto>> violations = validator.validate(userDto);
+        if (!violations.isEmpty()) {
+            final ConstraintViolation<UserDto> violation = violations.iterator().next();
+            report.reject(lineNumber, violation.getPropertyPath() + " " + violation.getMessage());
+            return Optional.empty();
+        }
+        try {
+            return Optional.of(userMapper.fromCreateRequest(userDto));
+        } catch (ResponseStatusException e) {
+            report.reject(lineNumber, e.getReason());
+            return Optional.empty();
+        }
+    }
+
+    private void save(List<User> users, List<Long> lines, Report report) {
+        if (users.isEmpty()) {
+            return;
+        }
+        report.created += userService.importUsers(users, (index, message) -> report.reject(lines.get(index), message));
+        users.clear();
+        lines.clear();
+    }
+
+    private static final class Report {
+        private final List<UserImportResultDto.LineError> errors = new ArrayList<>();
+        private long received;
+        private long created;
+        private long rejected;
+
+        void reject(long line, String message) {
+            rejected++;
+            if (errors.size() < MAX_REPORTED_ERRORS) {
+                errors.add(UserImportResultDto.LineError.builder().line(line).message(message).build());
+            }
+        }
+
+        UserImportResultDto toDto() {
+            return UserImportResultDto.builder()
+                    .received(received)
+                    .created(created)
+                    .rejected(rejected)
+                    .errors(errors)
+                    .build();
+        }
+    }
+}
@@ -1,13 +1,24 @@
 package ru.practicum.shareit.user.service;
 
+import org.springframework.data.domain.Pageable;
 import ru.practicum.shareit.user.model.User;
 
 import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 public interface UserService {
 
     User createUser(User user);
 
+    /**
+     * Saves new users in one transaction with batched inserts. Users whose email is taken, including by
+     * an earlier user of the list, are skipped and passed to rejected with their position and the reason.
+     *
+     * @return number of saved users
+     */
+    int importUsers(List<User> users, BiConsumer<Integer, String> rejected);
+
     User updateUser(User user);
 
     User deleteUser(long id);
@@ -16,5 +27,12 @@ public interface UserService {
 
     boolean isExist(long id);
 
-    List<User> getAllUsers();
+    List<User> getUsers(Pageable pageable);
+
+    List<User> getUsersAfter(long afterId, int size);
+
+    /**
+     * Passes users with id greater than afterId to the consumer in id order without collecting them.
+     */
+    void forEachUser(long afterId, Consumer<User> consumer);
 }
@@ -1,29 +1,82 @@
 package ru.practicum.shareit.user.service;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.common.TransactionHooks;
 import ru.practicum.shareit.user.exceptions.ConflictUserEmailException;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+import ru.practicum.shareit.user.model.UserUpdatedEvent;
+import ru.practicum.shareit.user.principal.SharerUser;
 import ru.practicum.shareit.user.repository.UserRepository;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 @Service
 public class UserServiceImpl implements UserService {
     private final UserRepository userRepository;
+    private final UserIdRegistry userIdRegistry;
+    private final UserEmailIndex userEmailIndex;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Autowired
-    public UserServiceImpl(UserRepository userRepository) {
+    public UserServiceImpl(UserRepository userRepository, UserIdRegistry userIdRegistry,
+                           UserEmailIndex userEmailIndex, ApplicationEventPublisher eventPublisher) {
         this.userRepository = userRepository;
+        this.userIdRegistry = userIdRegistry;
+        this.userEmailIndex = userEmailIndex;
+        this.eventPublisher = eventPublisher;
     }
 
+    /**
+     * The email is reserved in {@link UserEmailIndex} first, so a taken email fails before the insert.
+     */
     @Override
     @Transactional
     public User createUser(User user) {
-        return userRepository.save(user);
+        final UserEmailIndex.Claim claim = userEmailIndex.reserve(user.getEmail(), 0);
+        TransactionHooks.afterRollback(() -> userEmailIndex.release(claim));
+        final User saved = userRepository.save(user);
+        TransactionHooks.afterCommit(() -> {
+            userIdRegistry.add(saved.getId());
+            userEmailIndex.bind(claim, saved.getId());
+        });
+        return saved;
+    }
+
+    @Override
+    @Transactional
+    public int importUsers(List<User> users, BiConsumer<Integer, String> rejected) {
+        final List<UserEmailIndex.Claim> claims = new ArrayList<>(users.size());
+        TransactionHooks.afterRollback(() -> claims.forEach(userEmailIndex::release));
+        final List<User> accepted = new ArrayList<>(users.size());
+        for (int i = 0; i < users.size(); i++) {
+            final User user = users.get(i);
+            try {
+                claims.add(userEmailIndex.reserve(user.getEmail(), 0));
+                accepted.add(user);
+            } catch (ConflictUserEmailException e) {
+                rejected.accept(i, e.getMessage());
+            }
+        }
+        final List<User> saved = userRepository.saveAll(accepted);
+        TransactionHooks.afterCommit(() -> {
+            for (int i = 0; i < saved.size(); i++) {
+                userIdRegistry.add(saved.get(i).getId());
+                userEmailIndex.bind(claims.get(i), saved.get(i).getId());
+            }
+        });
+        return saved.size();
     }
 
     @Override
@@ -34,13 +87,18 @@ public class UserServiceImpl implements UserService {
             existedUser.setName(user.getName());
         }
         if (user.getEmail() != null) {
-            final Optional<User> userByEmail = userRepository.getUserByEmail(user.getEmail());
-            if (userByEmail.isPresent() && userByEmail.get().getId() != user.getId()) {
-                throw new ConflictUserEmailException(String.format("User with email %s already exist", user.getEmail()));
+            final String previousEmail = existedUser.getEmail();
+            final UserEmailIndex.Claim claim = userEmailIndex.reserve(user.getEmail(), existedUser.getId());
+            TransactionHooks.afterRollback(() -> userEmailIndex.release(claim));
+            if (!UserEmailIndex.normalize(previousEmail).equals(UserEmailIndex.normalize(user.getEmail()))) {
+                TransactionHooks.afterCommit(() -> userEmailIndex.release(previousEmail, existedUser.getId()));
             }
             existedUser.setEmail(user.getEmail());
         }
-        return userRepository.save(existedUser);
+        final User saved = userRepository.save(existedUser);
+        final UserUpdatedEvent event = new UserUpdatedEvent(saved.getId(), saved.getName(), saved.getEmail());
+        TransactionHooks.afterCommit(() -> eventPublisher.publishEvent(event));
+        return saved;
     }
 
     @Override
@@ -48,25 +106,66 @@ public class UserServiceImpl implements UserService {
     public User deleteUser(long id) {
         final User user = getUser(id);
         userRepository.delete(user);
+        SharerUser.current(id).ifPresent(principal -> principal.setUser(null));
+        TransactionHooks.afterCommit(() -> {
+            userIdRegistry.remove(id);
+            userEmailIndex.release(user.getEmail(), id);
+            eventPublisher.publishEvent(new UserDeletedEvent(id));
+        });
         return user;
     }
 
+    /**
+     * The user who sent the current request is loaded once and then taken from {@link SharerUser}.
+     */
     @Override
     @Transactional(readOnly = true)
     public User getUser(long id) {
-        return userRepository.findById(id)
+        final Optional<SharerUser> principal = SharerUser.current(id);
+        final Optional<User> memoized = principal.flatMap(SharerUser::getUser);
+        if (memoized.isPresent()) {
+            return memoized.get();
+        }
+        final User user = userRepository.findById(id)
                 .orElseThrow(() -> new UserNotFoundException(String.format("User with id = %s not found", id)));
+        principal.ifPresent(sharer -> sharer.setUser(user));
+        return user;
     }
 
+    /**
+     * Answered from {@link UserIdRegistry}; only unknown ids go to the database,
+     * which also picks up users committed before the registry saw them.
+     */
     @Override
-    @Transactional(readOnly = true)
     public boolean isExist(long id) {
-        return userRepository.existsById(id);
+        if (userIdRegistry.contains(id)) {
+            return true;
+        }
+        final long removals = userIdRegistry.removals();
+        if (userRepository.existsById(id)) {
+            userIdRegistry.addUnlessRemoved(id, removals);
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<User> getUsers(Pageable pageable) {
+        return userRepository.findAllBy(pageable);
     }
 
     @Override
     @Transactional(readOnly = true)
-    public List<User> getAllUsers() {
-        return userRepository.findAll();
+    public List<User> getUsersAfter(long afterId, int size) {
+        return userRepository.findAllByIdGreaterThanOrderById(afterId, PageRequest.of(0, size));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void forEachUser(long afterId, Consumer<User> consumer) {
+        try (Stream<User> users = userRepository.streamAllByIdGreaterThan(afterId)) {
+            users.forEach(consumer);
+        }
     }
 }
@@ -1,20 +1,33 @@
-DROP TABLE IF EXISTS users, items, bookings, comments, requests;
+DROP TABLE IF EXISTS users, items, bookings, comments, requests, request_suggestions;
+DROP SEQUENCE IF EXISTS users_seq;
+DROP SEQUENCE IF EXISTS items_seq;
+DROP SEQUENCE IF EXISTS bookings_seq;
+DROP SEQUENCE IF EXISTS comments_seq;
+DROP SEQUENCE IF EXISTS requests_seq;
+DROP SEQUENCE IF EXISTS request_suggestions_seq;
+
+CREATE SEQUENCE IF NOT EXISTS users_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS items_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS bookings_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS comments_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS requests_seq START WITH 1 INCREMENT BY 50;
+CREATE SEQUENCE IF NOT EXISTS request_suggestions_seq START WITH 1 INCREMENT BY 50;
 
 CREATE TABLE IF NOT EXISTS users (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(64) NOT NULL,
     email VARCHAR(64) UNIQUE NOT NULL
 );
 
 CREATE TABLE IF NOT EXISTS requests (
-                                        id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+                                        id BIGINT PRIMARY KEY,
                                         description VARCHAR(512) NOT NULL,
     requester_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
     );
 
 CREATE TABLE IF NOT EXISTS items (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     name VARCHAR(64) NOT NULL,
     description VARCHAR(512) NOT NULL,
     is_available BOOLEAN NOT NULL,
@@ -23,18 +36,35 @@ CREATE TABLE IF NOT EXISTS items (
 );
 
 CREATE TABLE IF NOT EXISTS bookings (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     start_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     end_date TIMESTAMP WITHOUT TIME ZONE NOT NULL,
     item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     booker_id BIGINT REFERENCES users (id) NOT NULL,
-    status VARCHAR(64) NOT NULL
+    status VARCHAR(64) NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 CREATE TABLE IF NOT EXISTS comments (
-    id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    id BIGINT PRIMARY KEY,
     text VARCHAR(512) NOT NULL,
     item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
     author_id BIGINT REFERENCES users (id) ON DELETE CASCADE NOT NULL,
     created TIMESTAMP WITHOUT TIME ZONE NOT NULL
 );
+
+CREATE TABLE IF NOT EXISTS request_suggestions (
+    id BIGINT PRIMARY KEY,
+    request_id BIGINT REFERENCES requests (id) ON DELETE CASCADE NOT NULL,
+    item_id BIGINT REFERENCES items (id) ON DELETE CASCADE NOT NULL,
+    score DOUBLE PRECISION NOT NULL,
+    created TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    UNIQUE (request_id, item_id)
+);
+
+CREATE INDEX IF NOT EXISTS bookings_booker_start_idx ON bookings (booker_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_booker_status_start_idx ON bookings (booker_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_start_idx ON bookings (item_id, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS bookings_item_status_start_idx ON bookings (item_id, status, start_date DESC, id DESC);
+CREATE INDEX IF NOT EXISTS items_owner_idx ON items (owner_id);
+CREATE INDEX IF NOT EXISTS requests_created_idx ON requests (created DESC, id DESC);
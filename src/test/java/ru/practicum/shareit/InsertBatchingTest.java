@@ -0,0 +1,79 @@
+package ru.practicum.shareit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Ids come from pooled sequences, so inserts of every entity are sent in JDBC batches
+ * instead of one statement per row.
+ */
+@SpringBootTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Import(StatementCounter.class)
+public class InsertBatchingTest {
+    private static final int ROWS = 120;
+    private static final long MAX_STATEMENTS = 30;
+    private static final LocalDateTime NOW = LocalDateTime.now();
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+
+    @Test
+    void insertsOfAllEntitiesAreBatched() {
+        statementCounter.reset();
+        transactionTemplate.executeWithoutResult(status -> {
+            final User owner = userRepository.save(User.builder().name("owner").email("owner@batch.com").build());
+            final User booker = userRepository.save(User.builder().name("booker").email("booker@batch.com").build());
+            for (int i = 0; i < ROWS; i++) {
+                final ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                        .description("request" + i).requester(booker).created(NOW).build());
+                final Item item = itemRepository.save(Item.builder()
+                        .name("item" + i).description("description").available(true).owner(owner).request(request)
+                        .build());
+                bookingRepository.save(Booking.builder()
+                        .start(NOW.minusDays(2)).end(NOW.minusDays(1)).item(item).booker(booker)
+                        .status(BookingStatus.APPROVED).build());
+                commentRepository.save(Comment.builder()
+                        .text("comment" + i).item(item).author(booker).created(NOW).build());
+            }
+        });
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+        assertEquals(ROWS, commentRepository.count());
+        assertEquals(ROWS, bookingRepository.count());
+    }
+}
@@ -0,0 +1,29 @@
+package ru.practicum.shareit;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.TestComponent;
+
+import javax.persistence.EntityManagerFactory;
+
+/**
+ * Counts JDBC statements prepared by Hibernate, used to keep query counts of endpoints bounded.
+ */
+@TestComponent
+public class StatementCounter {
+    private final Statistics statistics;
+
+    @Autowired
+    public StatementCounter(EntityManagerFactory entityManagerFactory) {
+        this.statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+    }
+
+    public void reset() {
+        statistics.clear();
+    }
+
+    public long count() {
+        return statistics.getPrepareStatementCount();
+    }
+}
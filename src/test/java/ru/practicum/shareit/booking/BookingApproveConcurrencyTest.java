@@ -0,0 +1,120 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import ru.practicum.shareit.booking.exception.ForbiddenBookingException;
+import ru.practicum.shareit.booking.exception.WrongBookingStatusException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class BookingApproveConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final int BOOKINGS = 10;
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    private User owner;
+    private User booker;
+    private Item item;
+
+    @BeforeEach
+    void init() {
+        final long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.com").build());
+        item = itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+    }
+
+    @Test
+    void concurrentDecisionsHaveExactlyOneWinner() throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            for (int i = 0; i < BOOKINGS; i++) {
+                final long bookingId = waitingBooking(i).getId();
+                final CountDownLatch start = new CountDownLatch(1);
+                final List<Future<Booking>> decisions = new ArrayList<>();
+                for (int thread = 0; thread < THREADS; thread++) {
+                    final boolean approved = thread % 2 == 0;
+                    decisions.add(executor.submit(() -> {
+                        start.await();
+                        return bookingService.approve(owner.getId(), bookingId, approved);
+                    }));
+                }
+                start.countDown();
+                final List<Booking> winners = new ArrayList<>();
+                for (Future<Booking> decision : decisions) {
+                    try {
+                        winners.add(decision.get(30, TimeUnit.SECONDS));
+                    } catch (ExecutionException e) {
+                        assertInstanceOf(WrongBookingStatusException.class, e.getCause());
+                    }
+                }
+                assertEquals(1, winners.size());
+                final Booking stored = bookingRepository.findById(bookingId).orElseThrow();
+                assertEquals(winners.get(0).getStatus(), stored.getStatus());
+                assertEquals(1, stored.getVersion());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void foreignUserCannotDecide() {
+        final long bookingId = waitingBooking(0).getId();
+        assertThrows(ForbiddenBookingException.class, () -> bookingService.approve(booker.getId(), bookingId, true));
+        assertEquals(BookingStatus.WAITING, bookingRepository.findById(bookingId).orElseThrow().getStatus());
+    }
+
+    @Test
+    void staleCopyCannotOverwriteDecision() {
+        final Booking stale = bookingRepository.findById(waitingBooking(0).getId()).orElseThrow();
+        bookingService.approve(owner.getId(), stale.getId(), false);
+        stale.setStatus(BookingStatus.APPROVED);
+        assertThrows(ObjectOptimisticLockingFailureException.class, () -> bookingRepository.save(stale));
+        assertTrue(bookingRepository.findById(stale.getId()).map(b -> b.getStatus() == BookingStatus.REJECTED)
+                .orElseThrow());
+    }
+
+    private Booking waitingBooking(int day) {
+        final LocalDateTime start = LocalDateTime.now().plusDays(1 + day * 2L);
+        return bookingRepository.save(Booking.builder().start(start).end(start.plusDays(1)).item(item).booker(booker)
+                .status(BookingStatus.WAITING).build());
+    }
+}
@@ -2,28 +2,42 @@ package ru.practicum.shareit.booking;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.booking.dto.BookingDecisionDto;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BulkDecisionDto;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingDecision;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
@@ -40,6 +54,8 @@ public class BookingControllerTest {
     private BookingMapper bookingMapper;
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private UserService userService;
     @Autowired
     private ObjectMapper objectMapper;
     private BookingMapper mapper = new BookingMapper(new UserMapper(), new ItemMapper());
@@ -69,6 +85,33 @@ public class BookingControllerTest {
 
     private static final String USER_ID = "X-Sharer-User-Id";
 
+    @BeforeEach
+    void init() {
+        when(userService.isExist(anyLong())).thenReturn(true);
+    }
+
+    @Test
+    void unknownUserIsRejectedTest() throws Exception {
+        when(userService.isExist(2L)).thenReturn(false);
+        mvc.perform(get("/bookings/{id}", 1)
+                        .header(USER_ID, 2))
+                .andExpect(status().isNotFound());
+        verify(bookingService, never()).get(anyLong(), anyLong());
+    }
+
+    @Test
+    void missingUserHeaderTest() throws Exception {
+        mvc.perform(get("/bookings/{id}", 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void malformedUserHeaderTest() throws Exception {
+        mvc.perform(get("/bookings/{id}", 1)
+                        .header(USER_ID, "abc"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void createBookingWhenAllParamsIsValidTest() throws Exception {
         when(bookingService.create(any())).thenReturn(booking);
@@ -146,6 +189,88 @@ public class BookingControllerTest {
         assertEquals(objectMapper.readValue(result, typeReference), expectedList);
     }
 
+    @Test
+    void getAllBookingsByCursorTest() throws Exception {
+        BookingDto expected = mapper.toDto(booking);
+        when(bookingService.getAllByBooker(anyLong(), any(), any(SeekCursor.class), anyInt())).thenReturn(List.of(booking));
+        when(bookingMapper.toDto(any())).thenReturn(expected);
+        final SeekCursor cursor = new SeekCursor(LocalDateTime.now(), 5L);
+        String nextCursor = mvc.perform(get("/bookings")
+                        .param("cursor", cursor.encode())
+                        .param("size", "1")
+                        .header(USER_ID, 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(BookingController.NEXT_CURSOR);
+        verify(bookingService).getAllByBooker(1L, BookingFilter.of(BookingState.ALL), cursor, 1);
+        assertEquals(new SeekCursor(booking.getStart(), booking.getId()), SeekCursor.decode(nextCursor));
+    }
+
+    @Test
+    void getAllByOwnerFirstCursorPageTest() throws Exception {
+        when(bookingService.getAllByOwner(anyLong(), any(), isNull(), anyInt())).thenReturn(List.of(booking));
+        String nextCursor = mvc.perform(get("/bookings/owner")
+                        .param("cursor", "")
+                        .header(USER_ID, 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getHeader(BookingController.NEXT_CURSOR);
+        verify(bookingService).getAllByOwner(1L, BookingFilter.of(BookingState.ALL), null, 10);
+        assertNull(nextCursor);
+    }
+
+    @Test
+    void getAllByOwnerWithFiltersTest() throws Exception {
+        final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        final LocalDateTime end = start.plusDays(7);
+        when(bookingService.getAllByOwner(anyLong(), any(), any())).thenReturn(List.of());
+        mvc.perform(get("/bookings/owner")
+                        .param("state", "FUTURE")
+                        .param("itemId", "3")
+                        .param("start", start.toString())
+                        .param("end", end.toString())
+                        .param("status", "WAITING", "APPROVED")
+                        .header(USER_ID, 1))
+                .andExpect(status().isOk());
+        final BookingFilter filter = BookingFilter.builder()
+                .state(BookingState.FUTURE)
+                .itemId(3L)
+                .start(start)
+                .end(end)
+                .statuses(Set.of(BookingStatus.WAITING, BookingStatus.APPROVED))
+                .build();
+        verify(bookingService).getAllByOwner(1L, filter, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void getAllBookingsWrongPeriodTest() throws Exception {
+        final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        mvc.perform(get("/bookings")
+                        .param("start", start.toString())
+                        .param("end", start.minusDays(1).toString())
+                        .header(USER_ID, 1))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).getAllByBooker(anyLong(), any(), any());
+    }
+
+    @Test
+    void getAllBookingsWrongStatusTest() throws Exception {
+        mvc.perform(get("/bookings")
+                        .param("status", "LOST")
+                        .header(USER_ID, 1))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void getAllBookingsWrongCursorTest() throws Exception {
+        mvc.perform(get("/bookings")
+                        .param("cursor", "not-a-cursor")
+                        .header(USER_ID, 1))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void approveBookingTest() throws Exception {
         BookingDto expected = mapper.toDto(booking);
@@ -162,6 +287,46 @@ public class BookingControllerTest {
         assertEquals(objectMapper.readValue(result, BookingDto.class), expected);
     }
 
+    @Test
+    void approveBookingsInBulkTest() throws Exception {
+        final List<BookingDecision> decisions = List.of(
+                new BookingDecision(1L, BookingDecision.Outcome.APPROVED),
+                new BookingDecision(2L, BookingDecision.Outcome.ALREADY_DECIDED)
+        );
+        when(bookingService.approveAll(1L, List.of(1L, 2L), true)).thenReturn(decisions);
+        when(bookingMapper.toDecisionDto(any())).thenAnswer(invocation -> mapper.toDecisionDto(invocation.getArgument(0)));
+        String result = mvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(
+                                BulkDecisionDto.builder().bookingIds(List.of(1L, 2L)).approved(true).build()
+                        )))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(
+                List.of(mapper.toDecisionDto(decisions.get(0)), mapper.toDecisionDto(decisions.get(1))),
+                objectMapper.readValue(result, new TypeReference<List<BookingDecisionDto>>() {
+                })
+        );
+    }
+
+    @Test
+    void approveBookingsInBulkWithoutIdsTest() throws Exception {
+        mvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingIds\":[],\"approved\":true}"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(patch("/bookings/bulk")
+                        .header(USER_ID, 1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"bookingIds\":[1,-2]}"))
+                .andExpect(status().isBadRequest());
+        verify(bookingService, never()).approveAll(anyLong(), any(), anyBoolean());
+    }
+
     @Test
     void getBookingByIdTest() throws Exception {
         BookingDto expected = mapper.toDto(booking);
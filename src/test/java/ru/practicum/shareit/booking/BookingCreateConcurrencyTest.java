@@ -0,0 +1,237 @@
+package ru.practicum.shareit.booking;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.ConcurrencyFailureException;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+public class BookingCreateConcurrencyTest {
+    private static final int THREADS = 16;
+    private static final Set<BookingStatus> ACTIVE = Set.of(BookingStatus.WAITING, BookingStatus.APPROVED);
+    private static final LocalDateTime FIRST_DAY = LocalDateTime.now().plusDays(1);
+    @Autowired
+    private BookingService bookingService;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    @Autowired
+    private ItemBookingLocks itemBookingLocks;
+    private User owner;
+    private User booker;
+
+    @BeforeEach
+    void init() {
+        final long suffix = System.nanoTime();
+        owner = userRepository.save(User.builder().name("owner").email("owner" + suffix + "@mail.com").build());
+        booker = userRepository.save(User.builder().name("booker").email("booker" + suffix + "@mail.com").build());
+    }
+
+    @Test
+    void sameIntervalIsBookedOnce() throws Exception {
+        final Item item = newItem();
+        final AtomicInteger created = new AtomicInteger();
+        runConcurrently(THREADS, thread -> {
+            try {
+                bookingService.create(booking(item, 0));
+                created.incrementAndGet();
+            } catch (BookingOverlapException e) {
+                return;
+            }
+        });
+        assertEquals(1, created.get());
+        assertEquals(1, bookingRepository.findAllByItemIdAndStatusIn(item.getId(), ACTIVE).size());
+    }
+
+    /**
+     * Renters of one item race for random days: the item lock against a SERIALIZABLE transaction
+     * that checks overlaps in the database and retries on serialization failures. The item lock must book
+     * every requested day exactly once and finish no later than the baseline. Run with {@code -Dshareit.benchmark=true}.
+     */
+    @Test
+    @EnabledIfSystemProperty(named = "shareit.benchmark", matches = "true")
+    void contentionBenchmark() throws Exception {
+        final int attempts = 100;
+        final int days = 400;
+        final TransactionTemplate serializable = new TransactionTemplate(transactionManager);
+        serializable.setIsolationLevel(TransactionDefinition.ISOLATION_SERIALIZABLE);
+        for (int round = 0; round < 3; round++) {
+            final Item locked = newItem();
+            final long lockedWaitsBefore = itemBookingLocks.getContended();
+            final Result lockedResult = race(attempts, days, day -> {
+                try {
+                    bookingService.create(booking(locked, day));
+                    return true;
+                } catch (BookingOverlapException e) {
+                    return false;
+                }
+            });
+            final Item naive = newItem();
+            final AtomicInteger aborted = new AtomicInteger();
+            final Result naiveResult = race(attempts, days, day -> {
+                while (true) {
+                    try {
+                        return serializable.execute(status -> {
+                            final Booking booking = booking(naive, day);
+                            final boolean overlaps = bookingRepository.findAllByItemIdAndStatusIn(naive.getId(), ACTIVE)
+                                    .stream()
+                                    .anyMatch(other -> other.getStart().isBefore(booking.getEnd())
+                                            && other.getEnd().isAfter(booking.getStart()));
+                            if (overlaps) {
+                                return false;
+                            }
+                            bookingRepository.save(booking.toBuilder().status(BookingStatus.WAITING).build());
+                            return true;
+                        });
+                    } catch (ConcurrencyFailureException e) {
+                        aborted.incrementAndGet();
+                    }
+                }
+            });
+            log.info("round {}, {} threads x {} attempts over {} days", round, THREADS, attempts, days);
+            log.info("item lock: {} ms, {} created, {} attempts/s, {} contended",
+                    lockedResult.millis, lockedResult.created, Math.round(lockedResult.rate(THREADS * attempts)),
+                    itemBookingLocks.getContended() - lockedWaitsBefore);
+            log.info("serializable: {} ms, {} created, {} attempts/s, {} aborted, {} overlaps",
+                    naiveResult.millis, naiveResult.created, Math.round(naiveResult.rate(THREADS * attempts)),
+                    aborted.get(), overlaps(naive));
+            assertEquals(0, overlaps(locked));
+            assertEquals(requestedDays(attempts, days), lockedResult.created);
+            assertTrue(lockedResult.millis <= naiveResult.millis);
+        }
+    }
+
+    private Result race(int attempts, int days, DayBooking action) throws Exception {
+        final AtomicInteger created = new AtomicInteger();
+        final long startedAt = System.nanoTime();
+        runConcurrently(THREADS, thread -> {
+            final Random random = new Random(thread);
+            for (int i = 0; i < attempts; i++) {
+                if (action.book(random.nextInt(days))) {
+                    created.incrementAndGet();
+                }
+            }
+        });
+        return new Result(created.get(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    private static int requestedDays(int attempts, int days) {
+        final Set<Integer> requested = new HashSet<>();
+        for (int thread = 0; thread < THREADS; thread++) {
+            final Random random = new Random(thread);
+            for (int i = 0; i < attempts; i++) {
+                requested.add(random.nextInt(days));
+            }
+        }
+        return requested.size();
+    }
+
+    private void runConcurrently(int threads, Consumer<Integer> body) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final List<Future<Object>> futures = new ArrayList<>();
+            for (int thread = 0; thread < threads; thread++) {
+                final int number = thread;
+                final Callable<Object> task = () -> {
+                    start.await();
+                    body.accept(number);
+                    return null;
+                };
+                futures.add(executor.submit(task));
+            }
+            start.countDown();
+            for (Future<Object> future : futures) {
+                future.get(5, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private long overlaps(Item item) {
+        final List<Booking> active = new ArrayList<>(bookingRepository.findAllByItemIdAndStatusIn(item.getId(), ACTIVE));
+        active.sort(Comparator.comparing(Booking::getStart));
+        long overlaps = 0;
+        for (int i = 1; i < active.size(); i++) {
+            if (active.get(i).getStart().isBefore(active.get(i - 1).getEnd())) {
+                overlaps++;
+            }
+        }
+        return overlaps;
+    }
+
+    private Item newItem() {
+        return itemRepository.save(Item.builder().name("item").description("description").available(true)
+                .owner(owner).build());
+    }
+
+    private Booking booking(Item item, int day) {
+        final LocalDateTime start = FIRST_DAY.plusDays(day);
+        return Booking.builder().start(start).end(start.plusHours(20)).item(item).booker(booker).build();
+    }
+
+    private interface DayBooking {
+        boolean book(int day);
+    }
+
+    private static final class Result {
+        private final int created;
+        private final long millis;
+
+        private Result(int created, long millis) {
+            this.created = created;
+            this.millis = millis;
+        }
+
+        double rate(int attempts) {
+            return attempts * 1000.0 / Math.max(millis, 1);
+        }
+    }
+}
@@ -0,0 +1,147 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTest {
+    @Mock
+    private BookingRepository bookingRepository;
+    private BookingIntervalIndex bookingIntervalIndex;
+    private final LocalDateTime now = LocalDateTime.now();
+    private final Item item = Item.builder().id(1L).build();
+    private final Booking booking = Booking.builder()
+            .id(1L)
+            .start(now.plusDays(1))
+            .end(now.plusDays(3))
+            .item(item)
+            .status(BookingStatus.WAITING)
+            .build();
+
+    @BeforeEach
+    void init() {
+        bookingIntervalIndex = new BookingIntervalIndex(bookingRepository, 10);
+    }
+
+    @Test
+    void overlapWithLoadedBookingTest() {
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any())).thenReturn(List.of(booking));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, now.plusDays(2), now.plusDays(4)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, now, now.plusDays(2)));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, now, now.plusDays(5)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now, now.plusDays(1)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now.plusDays(3), now.plusDays(4)));
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(1L), any());
+    }
+
+    @Test
+    void overlapWithOverlappingLoadedBookingsTest() {
+        final Booking inner = booking.toBuilder().id(2L).start(now.plusDays(2)).end(now.plusDays(3)).build();
+        final Booking outer = booking.toBuilder().end(now.plusDays(10)).build();
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any())).thenReturn(List.of(outer, inner));
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, now.plusDays(5), now.plusDays(6)));
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now.plusDays(10), now.plusDays(11)));
+    }
+
+    @Test
+    void removeWaitsForLoadingTimelineTest() throws InterruptedException {
+        final Thread[] remover = new Thread[1];
+        when(bookingRepository.findAllByItemIdAndStatusIn(eq(1L), any())).thenAnswer(invocation -> {
+            remover[0] = new Thread(() -> bookingIntervalIndex.remove(booking));
+            remover[0].start();
+            Thread.sleep(100);
+            return List.of(booking);
+        });
+        bookingIntervalIndex.hasOverlap(1L, now, now.plusDays(1));
+        remover[0].join();
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now.plusDays(2), now.plusDays(4)));
+    }
+
+    @Test
+    void addAndRemoveTest() {
+        bookingIntervalIndex.add(booking);
+        assertTrue(bookingIntervalIndex.hasOverlap(1L, now.plusDays(2), now.plusDays(4)));
+        bookingIntervalIndex.remove(booking);
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now.plusDays(2), now.plusDays(4)));
+    }
+
+    @Test
+    void rejectedBookingIsNotIndexedTest() {
+        bookingIntervalIndex.add(booking.toBuilder().status(BookingStatus.REJECTED).build());
+        assertFalse(bookingIntervalIndex.hasOverlap(1L, now.plusDays(2), now.plusDays(4)));
+    }
+
+    @Test
+    void otherItemIsIndependentTest() {
+        bookingIntervalIndex.add(booking);
+        assertFalse(bookingIntervalIndex.hasOverlap(2L, now.plusDays(2), now.plusDays(4)));
+    }
+
+    @Test
+    void findFreeChecksUnloadedItemsWithoutLoadingTest() {
+        bookingIntervalIndex.add(booking);
+        when(bookingRepository.findBusyItemIds(eq(List.of(2L, 3L)), any(), any(), any())).thenReturn(Set.of(2L));
+        assertEquals(Set.of(3L), bookingIntervalIndex.findFree(List.of(1L, 2L, 3L), now.plusDays(2), now.plusDays(4)));
+        assertEquals(1, bookingIntervalIndex.getSize());
+        verify(bookingRepository, never()).findAllByItemIdAndStatusIn(eq(2L), any());
+    }
+
+    @Test
+    void leastRecentlyUsedTimelinesAreEvictedTest() {
+        for (long itemId = 1; itemId <= 11; itemId++) {
+            bookingIntervalIndex.hasOverlap(itemId, now, now.plusDays(1));
+        }
+        assertEquals(9, bookingIntervalIndex.getSize());
+        bookingIntervalIndex.hasOverlap(1L, now, now.plusDays(1));
+        verify(bookingRepository, times(2)).findAllByItemIdAndStatusIn(eq(1L), any());
+        verify(bookingRepository, times(1)).findAllByItemIdAndStatusIn(eq(11L), any());
+    }
+
+    @Test
+    void findFreeBetweenBookingsTest() {
+        final LocalDateTime hour = LocalDateTime.of(2030, 1, 1, 10, 0);
+        bookingIntervalIndex.add(booking.toBuilder().start(hour).end(hour.plusMinutes(20)).build());
+        bookingIntervalIndex.add(booking.toBuilder().id(2L).start(hour.plusMinutes(40)).end(hour.plusHours(2)).build());
+        assertEquals(Set.of(1L), bookingIntervalIndex.findFree(List.of(1L), hour.plusMinutes(20), hour.plusMinutes(40)));
+        assertEquals(Set.of(), bookingIntervalIndex.findFree(List.of(1L), hour.plusMinutes(10), hour.plusMinutes(30)));
+        assertEquals(Set.of(1L), bookingIntervalIndex.findFree(List.of(1L), hour.plusHours(2), hour.plusHours(3)));
+        assertEquals(Set.of(), bookingIntervalIndex.findFree(List.of(1L), hour.plusHours(1), hour.plusHours(3)));
+    }
+
+    @Test
+    void removeKeepsNeighboursTest() {
+        final LocalDateTime hour = LocalDateTime.of(2030, 1, 1, 10, 0);
+        final Booking first = booking.toBuilder().start(hour).end(hour.plusMinutes(20)).build();
+        final Booking second = booking.toBuilder().id(2L).start(hour.plusMinutes(30)).end(hour.plusMinutes(50)).build();
+        bookingIntervalIndex.add(first);
+        bookingIntervalIndex.add(second);
+        bookingIntervalIndex.remove(second);
+        assertEquals(Set.of(), bookingIntervalIndex.findFree(List.of(1L), hour.plusMinutes(10), hour.plusHours(1)));
+        assertEquals(Set.of(1L), bookingIntervalIndex.findFree(List.of(1L), hour.plusMinutes(20), hour.plusHours(1)));
+        bookingIntervalIndex.remove(first);
+        assertEquals(Set.of(1L), bookingIntervalIndex.findFree(List.of(1L), hour, hour.plusHours(1)));
+    }
+}
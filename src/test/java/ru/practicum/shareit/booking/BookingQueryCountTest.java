@@ -0,0 +1,212 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.MediaType;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.model.BookingState;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.principal.SharerUser;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(StatementCounter.class)
+public class BookingQueryCountTest {
+    private static final int ITEMS = 12;
+    private static final int BOOKERS = 5;
+    private static final int PAGE = 40;
+    private static final int LARGE_PAGE = 100;
+    private static final long MAX_STATEMENTS = 3;
+    private static final int BULK_ITEMS = 3;
+    private static final int BULK_BOOKINGS_PER_ITEM = 20;
+    private static final long MAX_BULK_STATEMENTS = 3;
+    private static final long MAX_REFUSED_GET_STATEMENTS = 2;
+    private static final long MAX_GET_STATEMENTS = 3;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    private User owner;
+    private User booker;
+    private Item firstItem;
+
+    @BeforeAll
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@count.com").build());
+        final List<User> bookers = new ArrayList<>();
+        for (int i = 0; i < BOOKERS; i++) {
+            bookers.add(userRepository.save(User.builder().name("booker" + i).email(i + "booker@count.com").build()));
+        }
+        booker = bookers.get(0);
+        final LocalDateTime start = LocalDateTime.now().plusDays(1);
+        for (int i = 0; i < ITEMS; i++) {
+            final Item item = itemRepository.save(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            if (firstItem == null) {
+                firstItem = item;
+            }
+            commentRepository.save(Comment.builder()
+                    .item(item)
+                    .author(bookers.get(1))
+                    .text("comment" + i)
+                    .created(LocalDateTime.now())
+                    .build());
+            for (int j = 0; j < BOOKERS; j++) {
+                bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(i % 2 == 0 ? booker : bookers.get(j))
+                        .start(start.plusDays(i * BOOKERS + j))
+                        .end(start.plusDays(i * BOOKERS + j + 1))
+                        .status(BookingStatus.WAITING)
+                        .build());
+            }
+        }
+    }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"/bookings", "/bookings/owner"})
+    void listBookingsInBoundedStatementsTest(String path) throws Exception {
+        final long userId = path.endsWith("owner") ? owner.getId() : booker.getId();
+        for (String state : List.of("ALL", "FUTURE", "WAITING")) {
+            statementCounter.reset();
+            mvc.perform(get(path)
+                            .header(SharerUser.HEADER, userId)
+                            .param("state", state)
+                            .param("size", String.valueOf(PAGE)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$[0].item.name").exists())
+                    .andExpect(jsonPath("$[0].booker.name").exists());
+            assertThat(path + " " + state, statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+        }
+        final LocalDateTime now = LocalDateTime.now();
+        statementCounter.reset();
+        mvc.perform(get(path)
+                        .header(SharerUser.HEADER, userId)
+                        .param("itemId", String.valueOf(firstItem.getId()))
+                        .param("start", now.toString())
+                        .param("end", now.plusYears(1).toString())
+                        .param("status", "WAITING", "APPROVED")
+                        .param("size", String.valueOf(PAGE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(BOOKERS))
+                .andExpect(jsonPath("$[0].item.id").value(firstItem.getId()));
+        assertThat(path + " filtered", statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void listBookingsBeyondBatchSizeInBoundedStatementsTest() throws Exception {
+        statementCounter.reset();
+        mvc.perform(get("/bookings/owner")
+                        .header(SharerUser.HEADER, owner.getId())
+                        .param("size", String.valueOf(LARGE_PAGE)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ITEMS * BOOKERS))
+                .andExpect(jsonPath("$[" + (ITEMS * BOOKERS - 1) + "].item.name").exists());
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void getBookingChecksAccessWithoutLoadingItemTest() throws Exception {
+        final long bookingId = bookingRepository.findAllByBooker(booker.getId(), BookingFilter.of(BookingState.ALL),
+                LocalDateTime.now(), null, PageRequest.of(0, 1)).get(0).getId();
+        final User stranger = userRepository.save(User.builder().name("stranger").email("stranger@count.com").build());
+        statementCounter.reset();
+        mvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(SharerUser.HEADER, stranger.getId()))
+                .andExpect(status().isNotFound());
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_REFUSED_GET_STATEMENTS));
+        statementCounter.reset();
+        mvc.perform(get("/bookings/{bookingId}", bookingId)
+                        .header(SharerUser.HEADER, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.item.name").exists())
+                .andExpect(jsonPath("$.booker.name").exists());
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_GET_STATEMENTS));
+    }
+
+    @Test
+    void decideBookingsInBulkInBoundedStatementsTest() throws Exception {
+        final User fleetOwner = userRepository.save(User.builder().name("fleet").email("fleet@count.com").build());
+        final LocalDateTime start = LocalDateTime.now().plusYears(1);
+        final List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < BULK_ITEMS; i++) {
+            final Item item = itemRepository.save(Item.builder()
+                    .name("fleet" + i)
+                    .description("fleet item")
+                    .available(true)
+                    .owner(fleetOwner)
+                    .build());
+            for (int j = 0; j < BULK_BOOKINGS_PER_ITEM; j++) {
+                ids.add(bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(start.plusDays(j))
+                        .end(start.plusDays(j).plusHours(1))
+                        .status(BookingStatus.WAITING)
+                        .build()).getId());
+            }
+        }
+        statementCounter.reset();
+        mvc.perform(patch("/bookings/bulk")
+                        .header(SharerUser.HEADER, fleetOwner.getId())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(String.format("{\"bookingIds\":%s,\"approved\":false}", ids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(ids.size()))
+                .andExpect(jsonPath("$[0].outcome").value("REJECTED"));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_BULK_STATEMENTS));
+        assertEquals(List.of(BookingStatus.REJECTED), bookingRepository.findAllById(ids).stream()
+                .map(Booking::getStatus)
+                .distinct()
+                .collect(Collectors.toList()));
+    }
+}
@@ -7,10 +7,16 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
 import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.test.annotation.DirtiesContext;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingFilter;
+import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.NearestBookings;
+import ru.practicum.shareit.booking.repository.BookingRepository;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
 import ru.practicum.shareit.user.model.User;
@@ -18,6 +24,11 @@ import ru.practicum.shareit.user.repository.UserRepository;
 
 import javax.transaction.Transactional;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.equalTo;
@@ -35,6 +46,8 @@ public class BookingServiceIntegrationTest {
     private ItemRepository itemRepository;
     @Autowired
     private UserRepository userRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
     private User booker;
     private Item savedItem;
     private Booking booking;
@@ -66,6 +79,90 @@ public class BookingServiceIntegrationTest {
                 .build();
     }
 
+    @Test
+    void cursorPagesDoNotOverlapTest() {
+        final LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(10);
+        for (int i = 0; i < 5; i++) {
+            bookingRepository.save(Booking.builder()
+                    .booker(booker)
+                    .item(savedItem)
+                    .start(start.plusDays(i % 2))
+                    .end(start.plusDays(3))
+                    .status(BookingStatus.WAITING)
+                    .build());
+        }
+        final BookingFilter future = BookingFilter.of(BookingState.FUTURE);
+        final List<Booking> firstPage = bookingService.getAllByBooker(booker.getId(), future, null, 2);
+        final Booking lastOnFirst = firstPage.get(firstPage.size() - 1);
+        final List<Booking> secondPage = bookingService.getAllByBooker(booker.getId(), future,
+                new SeekCursor(lastOnFirst.getStart(), lastOnFirst.getId()), 10);
+        assertThat(firstPage.size(), equalTo(2));
+        assertThat(secondPage.size(), equalTo(3));
+        final List<Booking> all = new ArrayList<>(firstPage);
+        all.addAll(secondPage);
+        assertThat(all, equalTo(bookingService.getAllByBooker(booker.getId(), future, PageRequest.of(0, 10))));
+    }
+
+    @Test
+    void filteredListingTest() {
+        final LocalDateTime start = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS).plusDays(30);
+        final Item other = itemRepository.save(Item.builder()
+                .name("otherItem")
+                .description("otherDescription")
+                .available(true)
+                .owner(savedItem.getOwner())
+                .build());
+        final List<Booking> saved = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            saved.add(bookingRepository.save(Booking.builder()
+                    .booker(booker)
+                    .item(other)
+                    .start(start.plusDays(i * 2))
+                    .end(start.plusDays(i * 2 + 1))
+                    .status(i % 2 == 0 ? BookingStatus.WAITING : BookingStatus.APPROVED)
+                    .build()));
+        }
+        final BookingFilter filter = BookingFilter.builder()
+                .state(BookingState.FUTURE)
+                .itemId(other.getId())
+                .start(start.plusDays(1).plusHours(12))
+                .end(start.plusDays(8).plusHours(12))
+                .statuses(Set.of(BookingStatus.WAITING))
+                .build();
+        final List<Booking> expected = List.of(saved.get(4), saved.get(2));
+        assertThat(bookingService.getAllByOwner(savedItem.getOwner().getId(), filter, PageRequest.of(0, 10)),
+                equalTo(expected));
+        assertThat(bookingService.getAllByBooker(booker.getId(), filter, PageRequest.of(0, 10)), equalTo(expected));
+        assertThat(bookingService.getAllByBooker(savedItem.getOwner().getId(), filter, PageRequest.of(0, 10)),
+                equalTo(List.of()));
+        final Booking first = expected.get(0);
+        assertThat(bookingService.getAllByOwner(savedItem.getOwner().getId(), filter,
+                new SeekCursor(first.getStart(), first.getId()), 10), equalTo(List.of(saved.get(2))));
+    }
+
+    @Test
+    void nearestBookingsTest() {
+        final LocalDateTime now = LocalDateTime.now();
+        saveBooking(now.minusDays(5), now.minusDays(4), BookingStatus.APPROVED);
+        final Booking current = saveBooking(now.minusDays(1), now.plusDays(1), BookingStatus.APPROVED);
+        saveBooking(now.minusHours(1), now.plusDays(2), BookingStatus.REJECTED);
+        final Booking next = saveBooking(now.plusDays(2), now.plusDays(3), BookingStatus.WAITING);
+        saveBooking(now.plusDays(5), now.plusDays(6), BookingStatus.WAITING);
+        final Map<Long, NearestBookings> nearest = bookingService.getNearestBookings(List.of(savedItem.getId()), now);
+        assertThat(nearest.get(savedItem.getId()).getLast().getId(), equalTo(current.getId()));
+        assertThat(nearest.get(savedItem.getId()).getNext().getId(), equalTo(next.getId()));
+    }
+
+    private Booking saveBooking(LocalDateTime start, LocalDateTime end, BookingStatus status) {
+        return bookingRepository.save(Booking.builder()
+                .booker(booker)
+                .item(savedItem)
+                .start(start)
+                .end(end)
+                .status(status)
+                .build());
+    }
+
     @Test
     void addBookingTest() {
         Booking createdBooking = bookingService.create(booking);
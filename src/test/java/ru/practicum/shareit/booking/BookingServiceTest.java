@@ -9,34 +9,52 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import ru.practicum.shareit.booking.dto.CreateBookingDto;
 import ru.practicum.shareit.booking.exception.BookerNotFoundException;
 import ru.practicum.shareit.booking.exception.BookingNotAvailableException;
 import ru.practicum.shareit.booking.exception.BookingNotFoundException;
+import ru.practicum.shareit.booking.exception.BookingOverlapException;
 import ru.practicum.shareit.booking.exception.ForbiddenBookingException;
 import ru.practicum.shareit.booking.exception.WrongBookerException;
 import ru.practicum.shareit.booking.exception.WrongBookingStatusException;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingAccess;
+import ru.practicum.shareit.booking.model.BookingDecision;
+import ru.practicum.shareit.booking.model.BookingFilter;
 import ru.practicum.shareit.booking.model.BookingState;
 import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.model.NearestBookings;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +67,11 @@ public class BookingServiceTest {
     private ItemService itemService;
     @Mock
     private UserService userService;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+    private final ItemBookingLocks itemBookingLocks = new ItemBookingLocks(16, Duration.ofSeconds(1));
     private final BookingMapper bookingMapper = new BookingMapper(new UserMapper(), new ItemMapper());
     private final LocalDateTime now = LocalDateTime.now();
     private final User owner = User.builder()
@@ -82,58 +105,114 @@ public class BookingServiceTest {
             .booker(user)
             .build();
     private final PageRequest pageRequest = PageRequest.of(0, 10);
+    private final SeekCursor cursor = new SeekCursor(now.plusDays(3L), 10L);
 
     @BeforeEach
     void set() {
-        bookingService = new BookingServiceImpl(bookingRepository, itemService, userService);
+        bookingService = new BookingServiceImpl(bookingRepository, itemService, userService, bookingIntervalIndex,
+                itemBookingLocks, new TransactionTemplate(transactionManager));
     }
 
     @Test
     void addBookingTest() {
-        when(itemService.getItem(anyLong())).thenReturn(item);
+        when(itemService.getSnapshot(anyLong())).thenReturn(ItemSnapshot.of(item));
         when(userService.getUser(anyLong())).thenReturn(user);
         when(bookingRepository.save(any())).thenReturn(booking);
         assertEquals(booking, bookingService.create(bookingMapper.fromCreate(2, createBookingDto)));
+        verify(itemService, never()).recordApprovedBooking(anyLong());
     }
 
     @Test
     void addBookingBookerIsOwnerTest() {
-        when(itemService.getItem(anyLong())).thenReturn(item);
+        when(itemService.getSnapshot(anyLong())).thenReturn(ItemSnapshot.of(item));
         assertThrows(WrongBookerException.class, () -> bookingService.create(bookingMapper.fromCreate(1, createBookingDto)));
     }
 
+    @Test
+    void addBookingOverlapTest() {
+        when(itemService.getSnapshot(anyLong())).thenReturn(ItemSnapshot.of(item));
+        when(bookingIntervalIndex.hasOverlap(anyLong(), any(), any())).thenReturn(true);
+        assertThrows(BookingOverlapException.class, () -> bookingService.create(bookingMapper.fromCreate(2, createBookingDto)));
+    }
+
     @Test
     void itemNotAvailableTest() {
-        when(itemService.getItem(anyLong())).thenReturn(item.toBuilder().available(false).build());
+        when(itemService.getSnapshot(anyLong())).thenReturn(ItemSnapshot.of(item.toBuilder().available(false).build()));
         assertThrows(BookingNotAvailableException.class, () -> bookingService.create(bookingMapper.fromCreate(2, createBookingDto)));
     }
 
     @Test
     void approveBookingTest() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
-        when(bookingRepository.save(any())).thenReturn(booking);
         Booking approved = booking.toBuilder().status(BookingStatus.APPROVED).build();
+        when(bookingRepository.updateStatus(2L, 1L, BookingStatus.WAITING, BookingStatus.APPROVED)).thenReturn(1);
+        when(bookingRepository.findWithItemAndBookerById(2L)).thenReturn(Optional.of(approved));
         assertEquals(approved, bookingService.approve(1L, 2L, true));
+        verify(itemService).recordApprovedBooking(approved.getItem().getId());
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void approveBookingByNotOwnerTest() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findAccessById(anyLong())).thenReturn(Optional.of(access(booking)));
         assertThrows(ForbiddenBookingException.class, () -> bookingService.approve(2L, 1L, true));
     }
 
     @Test
     void approveBookingAlreadyApprovedTest() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking.toBuilder().status(BookingStatus.APPROVED).build()));
+        when(bookingRepository.findAccessById(anyLong()))
+                .thenReturn(Optional.of(access(booking.toBuilder().status(BookingStatus.APPROVED).build())));
         assertThrows(WrongBookingStatusException.class, () -> bookingService.approve(1L, 2L, true));
     }
 
+    @Test
+    void approveAllBookingsTest() {
+        final Booking decided = booking.toBuilder().id(3L).status(BookingStatus.APPROVED).build();
+        final Booking foreign = booking.toBuilder().id(4L)
+                .item(item.toBuilder().id(2L).owner(user).build()).build();
+        when(bookingRepository.findAccessForUpdateByIdIn(List.of(1L, 3L, 4L, 5L, 1L)))
+                .thenReturn(List.of(access(booking), access(decided), access(foreign)));
+        assertEquals(
+                List.of(
+                        new BookingDecision(1L, BookingDecision.Outcome.REJECTED),
+                        new BookingDecision(3L, BookingDecision.Outcome.ALREADY_DECIDED),
+                        new BookingDecision(4L, BookingDecision.Outcome.FORBIDDEN),
+                        new BookingDecision(5L, BookingDecision.Outcome.NOT_FOUND)
+                ),
+                bookingService.approveAll(1L, List.of(1L, 3L, 4L, 5L, 1L), false)
+        );
+        verify(bookingRepository).updateStatusAll(List.of(1L), 1L, BookingStatus.WAITING, BookingStatus.REJECTED);
+        verify(bookingIntervalIndex).remove(access(booking).toBooking());
+    }
+
+    @Test
+    void approveAllWithoutDecidableBookingsTest() {
+        when(bookingRepository.findAccessForUpdateByIdIn(List.of(1L))).thenReturn(List.of(access(booking)));
+        assertEquals(
+                List.of(new BookingDecision(1L, BookingDecision.Outcome.FORBIDDEN)),
+                bookingService.approveAll(2L, List.of(1L), true)
+        );
+        verify(bookingRepository, never()).updateStatusAll(any(), anyLong(), any(), any());
+    }
+
+    @Test
+    void approveMissingBookingTest() {
+        when(bookingRepository.findAccessById(anyLong())).thenReturn(Optional.empty());
+        assertThrows(BookingNotFoundException.class, () -> bookingService.approve(1L, 2L, true));
+    }
+
     @Test
     void getBookingTest() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findAccessById(1L)).thenReturn(Optional.of(access(booking)));
+        when(bookingRepository.findWithItemAndBookerById(1L)).thenReturn(Optional.of(booking));
         assertEquals(booking, bookingService.get(1L, 1L));
     }
 
+    @Test
+    void getMissingBookingTest() {
+        when(bookingRepository.findAccessById(1L)).thenReturn(Optional.empty());
+        assertThrows(BookingNotFoundException.class, () -> bookingService.get(1L, 1L));
+    }
+
     @Test
     void getBookingByBookerTest() {
         when(bookingRepository.findFirstByBookerIdAndItemIdOrderByStart(eq(2L), anyLong())).thenReturn(Optional.ofNullable(booking));
@@ -143,9 +222,20 @@ public class BookingServiceTest {
     }
 
     @Test
-    void getBookingForItemTest() {
-        when(bookingRepository.findAllByItemId(anyLong())).thenReturn(List.of(booking));
-        assertEquals(List.of(booking), bookingService.getBookingForItem(item));
+    void getNearestBookingsTest() {
+        final Booking last = booking.toBuilder().id(2L).start(now.minusDays(2L)).end(now.minusDays(1L)).build();
+        final Booking next = booking.toBuilder().id(3L).build();
+        final Booking laterNext = booking.toBuilder().id(4L).build();
+        when(bookingRepository.findNearestByItemIds(any(), any(), any())).thenReturn(List.of(last, laterNext, next));
+        final Map<Long, NearestBookings> nearest = bookingService.getNearestBookings(List.of(1L, 2L), now);
+        assertEquals(new NearestBookings(last, next), nearest.get(1L));
+        assertEquals(NearestBookings.EMPTY, nearest.get(2L));
+    }
+
+    @Test
+    void getNearestBookingsForNoItemsTest() {
+        assertTrue(bookingService.getNearestBookings(List.of(), now).isEmpty());
+        verify(bookingRepository, never()).findNearestByItemIds(any(), any(), any());
     }
 
     @Test
@@ -155,95 +245,114 @@ public class BookingServiceTest {
 
     @Test
     void getBookingNotOwnerTest() {
-        when(bookingRepository.findById(anyLong())).thenReturn(Optional.ofNullable(booking));
+        when(bookingRepository.findAccessById(anyLong())).thenReturn(Optional.of(access(booking)));
         assertThrows(ForbiddenBookingException.class, () -> bookingService.get(3L, 1L));
+        verify(bookingRepository, never()).findWithItemAndBookerById(anyLong());
     }
 
     @ParameterizedTest
     @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
     void getAllByBookerTest(BookingState bookingState) {
+        final BookingFilter filter = BookingFilter.of(bookingState);
         when(userService.isExist(anyLong())).thenReturn(true);
-        switch (bookingState) {
-            case ALL:
-                when(bookingRepository.findAllByBookerIdOrderByStartDesc(anyLong(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case PAST:
-                when(bookingRepository.findAllByBookerIdAndEndIsBeforeOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case FUTURE:
-                when(bookingRepository.findAllByBookerIdAndStartIsAfterOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case CURRENT:
-                when(bookingRepository.findAllByBookerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                        any(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case WAITING:
-            case REJECTED:
-                when(bookingRepository.findAllByBookerIdAndStatusIsOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-        }
-        assertEquals(List.of(booking), bookingService.getAllByBooker(2L, bookingState, pageRequest));
+        when(bookingRepository.findAllByBooker(eq(2L), eq(filter), any(), isNull(), eq(pageRequest)))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByBooker(2L, filter, pageRequest));
     }
 
     @ParameterizedTest
     @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
     void allByWrongBookerTest(BookingState bookingState) {
         when(userService.isExist(anyLong())).thenReturn(false);
-        assertThrows(BookerNotFoundException.class, () -> bookingService.getAllByBooker(123L, bookingState, pageRequest));
+        assertThrows(BookerNotFoundException.class,
+                () -> bookingService.getAllByBooker(123L, BookingFilter.of(bookingState), pageRequest));
     }
 
     @Test
     void allByBookerWrongStateTest() {
         when(userService.isExist(anyLong())).thenReturn(true);
-        assertThrows(RuntimeException.class, () -> bookingService.getAllByBooker(123L, BookingState.UNKNOWN, pageRequest));
+        assertThrows(RuntimeException.class,
+                () -> bookingService.getAllByBooker(123L, BookingFilter.of(BookingState.UNKNOWN), pageRequest));
+        verify(bookingRepository, never()).findAllByBooker(anyLong(), any(), any(), any(), any());
     }
 
     @ParameterizedTest
     @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
     void getAllByOwnerUnknownTest(BookingState bookingState) {
+        final BookingFilter filter = BookingFilter.of(bookingState);
         when(userService.isExist(anyLong())).thenReturn(true);
-        switch (bookingState) {
-            case ALL:
-                when(bookingRepository.findAllByItemOwnerIdOrderByStartDesc(anyLong(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case PAST:
-                when(bookingRepository.findAllByItemOwnerIdAndEndIsBeforeOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case FUTURE:
-                when(bookingRepository.findAllByItemOwnerIdAndStartIsAfterOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case CURRENT:
-                when(bookingRepository.findAllByItemOwnerIdAndStartIsBeforeAndEndIsAfterOrderByStartDesc(anyLong(),
-                        any(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-            case WAITING:
-            case REJECTED:
-                when(bookingRepository.findAllByItemOwnerIdAndStatusIsOrderByStartDesc(anyLong(), any(), any()))
-                        .thenReturn(List.of(booking));
-                break;
-        }
-        assertEquals(List.of(booking), bookingService.getAllByOwner(2L, bookingState, pageRequest));
+        when(bookingRepository.findAllByOwner(eq(2L), eq(filter), any(), isNull(), eq(pageRequest)))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByOwner(2L, filter, pageRequest));
     }
 
     @ParameterizedTest
     @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
     void allByWrongOwnerTest(BookingState bookingState) {
         when(userService.isExist(anyLong())).thenReturn(false);
-        assertThrows(BookerNotFoundException.class, () -> bookingService.getAllByOwner(123L, bookingState, pageRequest));
+        assertThrows(BookerNotFoundException.class,
+                () -> bookingService.getAllByOwner(123L, BookingFilter.of(bookingState), pageRequest));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void getAllByBookerAfterCursorTest(BookingState bookingState) {
+        final BookingFilter filter = BookingFilter.of(bookingState);
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByBooker(eq(2L), eq(filter), any(), eq(cursor), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByBooker(2L, filter, cursor, 10));
+    }
+
+    @ParameterizedTest
+    @EnumSource(value = BookingState.class, names = {"ALL", "CURRENT", "PAST", "FUTURE", "WAITING", "REJECTED"})
+    void getAllByOwnerAfterCursorTest(BookingState bookingState) {
+        final BookingFilter filter = BookingFilter.of(bookingState);
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByOwner(eq(1L), eq(filter), any(), eq(cursor), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByOwner(1L, filter, cursor, 10));
+    }
+
+    @Test
+    void getAllByBookerFirstCursorPageTest() {
+        final BookingFilter filter = BookingFilter.of(BookingState.ALL);
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByBooker(eq(2L), eq(filter), any(), isNull(), eq(PageRequest.of(0, 10))))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByBooker(2L, filter, null, 10));
+    }
+
+    @Test
+    void getAllByOwnerWithFilterTest() {
+        final BookingFilter filter = BookingFilter.builder()
+                .state(BookingState.FUTURE)
+                .itemId(1L)
+                .statuses(Set.of(BookingStatus.WAITING, BookingStatus.APPROVED))
+                .build();
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(bookingRepository.findAllByOwner(eq(1L), eq(filter), any(), isNull(), eq(pageRequest)))
+                .thenReturn(List.of(booking));
+        assertEquals(List.of(booking), bookingService.getAllByOwner(1L, filter, pageRequest));
+    }
+
+    @Test
+    void allByWrongOwnerAfterCursorTest() {
+        final BookingFilter filter = BookingFilter.of(BookingState.ALL);
+        when(userService.isExist(anyLong())).thenReturn(false);
+        assertThrows(BookerNotFoundException.class, () -> bookingService.getAllByOwner(123L, filter, cursor, 10));
+        assertThrows(BookerNotFoundException.class, () -> bookingService.getAllByBooker(123L, filter, cursor, 10));
     }
 
     @Test
     void allByOwnerWrongStateTest() {
         when(userService.isExist(anyLong())).thenReturn(true);
-        assertThrows(RuntimeException.class, () -> bookingService.getAllByOwner(123L, BookingState.UNKNOWN, pageRequest));
+        assertThrows(RuntimeException.class,
+                () -> bookingService.getAllByOwner(123L, BookingFilter.of(BookingState.UNKNOWN), pageRequest));
+    }
+
+    private static BookingAccess access(Booking booking) {
+        return new BookingAccess(booking.getId(), booking.getBooker().getId(), booking.getItem().getOwner().getId(),
+                booking.getStatus(), booking.getItem().getId(), booking.getStart(), booking.getEnd());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,86 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.exception.BookingLockTimeoutException;
+import ru.practicum.shareit.booking.service.ItemBookingLocks;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemBookingLocksTest {
+
+    @Test
+    void roundsStripesUpToPowerOfTwo() {
+        assertEquals(256, new ItemBookingLocks(256, Duration.ofSeconds(1)).getStripes());
+        assertEquals(128, new ItemBookingLocks(100, Duration.ofSeconds(1)).getStripes());
+    }
+
+    @Test
+    void serializesWritersOfOneItem() throws Exception {
+        final ItemBookingLocks locks = new ItemBookingLocks(16, Duration.ofSeconds(10));
+        final AtomicInteger inside = new AtomicInteger();
+        final AtomicInteger maxInside = new AtomicInteger();
+        final ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            final Future<?>[] writers = new Future<?>[8];
+            for (int i = 0; i < writers.length; i++) {
+                writers[i] = executor.submit(() -> {
+                    start.await();
+                    for (int round = 0; round < 50; round++) {
+                        locks.withLock(7L, () -> {
+                            maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                            Thread.yield();
+                            return inside.decrementAndGet();
+                        });
+                    }
+                    return null;
+                });
+            }
+            start.countDown();
+            for (Future<?> writer : writers) {
+                writer.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        assertEquals(1, maxInside.get());
+        assertEquals(400, locks.getAcquisitions());
+        assertEquals(0, locks.getTimeouts());
+    }
+
+    @Test
+    void givesUpAfterTimeout() throws Exception {
+        final ItemBookingLocks locks = new ItemBookingLocks(16, Duration.ofMillis(50));
+        final CountDownLatch locked = new CountDownLatch(1);
+        final CountDownLatch release = new CountDownLatch(1);
+        final Thread holder = new Thread(() -> locks.withLock(7L, () -> {
+            locked.countDown();
+            try {
+                return release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            }
+        }));
+        holder.start();
+        assertTrue(locked.await(10, TimeUnit.SECONDS));
+        try {
+            assertThrows(BookingLockTimeoutException.class, () -> locks.withLock(7L, () -> true));
+        } finally {
+            release.countDown();
+            holder.join();
+        }
+        assertEquals(1, locks.getTimeouts());
+        assertEquals(1, locks.getContended());
+        assertTrue(locks.withLock(7L, () -> true));
+    }
+}
@@ -2,21 +2,27 @@ package ru.practicum.shareit.item;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.controller.ItemController;
 import ru.practicum.shareit.item.dto.CommentDto;
 import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.dto.ItemSuggestionDto;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
 import ru.practicum.shareit.item.service.ItemService;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -24,6 +30,7 @@ import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
@@ -44,6 +51,8 @@ public class ItemControllerTest {
     private ItemMapper itemMapper;
     @MockBean
     private BookingService bookingService;
+    @MockBean
+    private UserService userService;
 
     private ItemMapper mapper = new ItemMapper();
 
@@ -66,6 +75,11 @@ public class ItemControllerTest {
     private final Integer from = 0;
     private final Integer size = 10;
 
+    @BeforeEach
+    void init() {
+        when(userService.isExist(anyLong())).thenReturn(true);
+    }
+
     @Test
     void createItemTest() throws Exception {
         when(itemService.createItem(any())).thenReturn(item);
@@ -87,7 +101,7 @@ public class ItemControllerTest {
 
     @Test
     void getItemOwnerTest() throws Exception {
-        when(bookingService.getBookingForItem(any())).thenReturn(Collections.emptyList());
+        when(bookingService.getNearestBookings(any(), any())).thenReturn(Collections.emptyMap());
         when(itemService.getItem(anyLong())).thenReturn(item);
         ItemDto expected = mapper.toDto(item, null, null);
         when(itemMapper.toDto(any(), any(), any())).thenReturn(expected);
@@ -103,7 +117,7 @@ public class ItemControllerTest {
 
     @Test
     void getItemOtherUserTest() throws Exception {
-        when(bookingService.getBookingForItem(any())).thenReturn(Collections.emptyList());
+        when(bookingService.getNearestBookings(any(), any())).thenReturn(Collections.emptyMap());
         when(itemService.getItem(anyLong())).thenReturn(item);
         ItemDto expected = mapper.toDto(item, null, null);
         when(itemMapper.toDto(any(), any(), any())).thenReturn(expected);
@@ -114,6 +128,7 @@ public class ItemControllerTest {
                 .getResponse()
                 .getContentAsString();
         verify(itemService).getItem(1L);
+        verify(bookingService, never()).getNearestBookings(any(), any());
         assertEquals(objectMapper.readValue(result, ItemDto.class), expected);
     }
 
@@ -137,7 +152,7 @@ public class ItemControllerTest {
     @Test
     void getAllItemsTest() throws Exception {
         when(itemService.getItemsByOwner(anyLong())).thenReturn(List.of(item));
-        when(bookingService.getBookingForItem(any())).thenReturn(Collections.emptyList());
+        when(bookingService.getNearestBookings(any(), any())).thenReturn(Collections.emptyMap());
         ItemDto expected = mapper.toDto(item, null, null);
         when(itemMapper.toDto(any(), any(), any())).thenReturn(expected);
         String result = mvc.perform(get("/items", from, size)
@@ -155,23 +170,49 @@ public class ItemControllerTest {
 
     @Test
     void searchTest() throws Exception {
-        when(itemService.searchAvailableItems(anyString())).thenReturn(List.of(item));
-        when(bookingService.getBookingForItem(any())).thenReturn(Collections.emptyList());
+        when(itemService.searchAvailableItems(anyString(), any())).thenReturn(List.of(item));
+        when(bookingService.getNearestBookings(any(), any())).thenReturn(Collections.emptyMap());
         ItemDto expected = mapper.toDto(item, null, null);
         when(itemMapper.toDto(any(), any(), any())).thenReturn(expected);
         String result = mvc.perform(get("/items/search", from, size)
                         .header(USER_ID, 1)
-                        .param("text", "search-text"))
+                        .param("text", "search-text")
+                        .param("from", "0")
+                        .param("size", "10"))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        verify(itemService).searchAvailableItems("search-text");
+        verify(itemService).searchAvailableItems("search-text", PageRequest.of(0, 10));
         TypeReference<List<ItemDto>> typeReference = new TypeReference<List<ItemDto>>() {
         };
         assertEquals(objectMapper.readValue(result, typeReference), List.of(expected));
     }
 
+    @Test
+    void searchFreeItemsTest() throws Exception {
+        final LocalDateTime start = LocalDateTime.of(2030, 1, 1, 10, 0);
+        final LocalDateTime end = start.plusDays(2);
+        when(itemService.searchAvailableItems(anyString(), any(), any(), any())).thenReturn(List.of(item));
+        when(bookingService.getNearestBookings(any(), any())).thenReturn(Collections.emptyMap());
+        mvc.perform(get("/items/search")
+                        .header(USER_ID, 1)
+                        .param("text", "search-text")
+                        .param("start", start.toString())
+                        .param("end", end.toString()))
+                .andExpect(status().isOk());
+        verify(itemService).searchAvailableItems("search-text", start, end, PageRequest.of(0, 10));
+    }
+
+    @Test
+    void searchWithHalfOpenPeriodTest() throws Exception {
+        mvc.perform(get("/items/search")
+                        .header(USER_ID, 1)
+                        .param("text", "search-text")
+                        .param("start", "2030-01-01T10:00:00"))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void emptySearchTest() throws Exception {
         String result = mvc.perform(get("/items/search", from, size)
@@ -186,6 +227,23 @@ public class ItemControllerTest {
         assertEquals(objectMapper.readValue(result, typeReference).size(), 0);
     }
 
+    @Test
+    void suggestTest() throws Exception {
+        final ItemNameSuggestion suggestion = new ItemNameSuggestion(1L, "Drill", "drill", 3L);
+        when(itemService.suggest("dri")).thenReturn(List.of(suggestion));
+        final ItemSuggestionDto expected = mapper.toSuggestionDto(suggestion);
+        when(itemMapper.toSuggestionDto(any())).thenReturn(expected);
+        String result = mvc.perform(get("/items/suggest")
+                        .param("prefix", "dri"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        TypeReference<List<ItemSuggestionDto>> typeReference = new TypeReference<List<ItemSuggestionDto>>() {
+        };
+        assertEquals(List.of(expected), objectMapper.readValue(result, typeReference));
+    }
+
     @Test
     void createCommentTest() throws Exception {
         final Comment comment = Comment.builder()
@@ -0,0 +1,94 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.ItemNameSuggestion;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemNameSuggesterTest {
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    private ItemNameSuggester suggester;
+
+    @BeforeEach
+    void init() {
+        suggester = new ItemNameSuggester(itemRepository, bookingRepository);
+        suggester.index(1L, 10L, "Дрель", true);
+        suggester.index(2L, 10L, "Дрель ударная", true);
+        suggester.index(3L, 10L, "Дрелька детская", false);
+        suggester.index(4L, 10L, "Шуруповерт", true);
+    }
+
+    @Test
+    void suggestByPrefixTest() {
+        assertEquals(List.of(1L, 2L), suggest("дрЕ"));
+        assertEquals(List.of(2L), suggest("Дрель у"));
+        assertEquals(List.of(1L, 2L, 4L), suggest(""));
+        assertEquals(List.of(), suggest("молоток"));
+    }
+
+    @Test
+    void popularItemsFirstTest() {
+        suggester.recordApprovedBooking(2L);
+        assertEquals(List.of(2L, 1L), suggest("дрель"));
+        suggester.recordApprovedBooking(1L);
+        suggester.recordApprovedBooking(1L);
+        assertEquals(List.of(1L, 2L), suggest("дрель"));
+    }
+
+    @Test
+    void keepsPopularityOfUnavailableItemsTest() {
+        suggester.recordApprovedBooking(3L);
+        suggester.index(3L, 10L, "Дрелька детская", true);
+        assertEquals(List.of(3L, 1L, 2L), suggest("др"));
+    }
+
+    @Test
+    void reindexTest() {
+        suggester.index(1L, 10L, "Перфоратор", true);
+        assertEquals(List.of(2L), suggest("дре"));
+        assertEquals(List.of(1L), suggest("перф"));
+        suggester.index(2L, 10L, "Дрель ударная", false);
+        assertEquals(List.of(), suggest("дре"));
+    }
+
+    @Test
+    void deletedOwnerItemsAreRemovedTest() {
+        suggester.index(5L, 20L, "Дрель аккумуляторная", true);
+        suggester.onUserDeleted(new UserDeletedEvent(10L));
+        assertEquals(List.of(5L), suggest("дре"));
+        assertEquals(List.of(5L), suggest(""));
+    }
+
+    @Test
+    void limitsSuggestionsTest() {
+        for (long id = 10; id < 30; id++) {
+            suggester.index(id, 10L, "Лестница " + id, true);
+        }
+        suggester.recordApprovedBooking(29L);
+        final List<Long> result = suggest("лест");
+        assertEquals(ItemNameSuggester.TOP_SIZE, result.size());
+        assertEquals(29L, result.get(0));
+    }
+
+    private List<Long> suggest(String prefix) {
+        return suggester.suggest(prefix)
+                .stream()
+                .map(ItemNameSuggestion::getId)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,96 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.BookingStatus;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(StatementCounter.class)
+public class ItemQueryCountTest {
+    private static final String USER_ID = "X-Sharer-User-Id";
+    private static final int ITEMS = 20;
+    private static final long MAX_STATEMENTS = 5;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private BookingRepository bookingRepository;
+    private User owner;
+
+    @BeforeAll
+    void init() {
+        owner = userRepository.save(User.builder().name("owner").email("owner@items.com").build());
+        final User booker = userRepository.save(User.builder().name("booker").email("booker@items.com").build());
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < ITEMS; i++) {
+            final Item item = itemRepository.save(Item.builder()
+                    .name("item" + i)
+                    .description("description" + i)
+                    .available(true)
+                    .owner(owner)
+                    .build());
+            for (int j = 1; j <= 3; j++) {
+                bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(now.plusDays(-10 * j))
+                        .end(now.plusDays(-10 * j + 1))
+                        .status(BookingStatus.APPROVED)
+                        .build());
+                bookingRepository.save(Booking.builder()
+                        .item(item)
+                        .booker(booker)
+                        .start(now.plusDays(10 * j))
+                        .end(now.plusDays(10 * j + 1))
+                        .status(BookingStatus.WAITING)
+                        .build());
+            }
+        }
+    }
+
+    @Test
+    void itemsByOwnerInBoundedStatementsTest() throws Exception {
+        statementCounter.reset();
+        mvc.perform(get("/items")
+                        .header(USER_ID, owner.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(ITEMS)))
+                .andExpect(jsonPath("$[0].lastBooking.bookerId").exists())
+                .andExpect(jsonPath("$[0].nextBooking.bookerId").exists());
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+}
@@ -0,0 +1,132 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
+import ru.practicum.shareit.item.search.TextTokenizer;
+import ru.practicum.shareit.item.search.TrigramIndex;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTest {
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemSearchIndex itemSearchIndex;
+
+    @BeforeEach
+    void init() {
+        itemSearchIndex = new ItemSearchIndex(itemRepository, new TrigramIndex());
+        itemSearchIndex.index(1L, 10L, "Дрель", "Простая дрель", true);
+        itemSearchIndex.index(2L, 10L, "Аккумуляторная дрель", "Аккумуляторная дрель + аккумулятор", true);
+        itemSearchIndex.index(3L, 10L, "Отвертка", "Аккумуляторная отвертка", false);
+        itemSearchIndex.index(4L, 10L, "Клей Момент", "Тюбик суперклея марки Момент", true);
+    }
+
+    @Test
+    void tokenizeTest() {
+        assertEquals(List.of("аккумуляторная", "дрель", "2000"), TextTokenizer.tokenize("АККУМУЛЯТОРНАЯ дрель, 2000!"));
+        assertEquals(List.of("елка"), TextTokenizer.tokenize("Ёлка"));
+    }
+
+    @Test
+    void searchIgnoresCaseTest() {
+        assertEquals(List.of(1L, 2L), search("дрЕль"));
+        assertEquals(List.of(2L), search("аккУМУляторная"));
+    }
+
+    @Test
+    void searchByWordPrefixTest() {
+        assertEquals(List.of(2L), search("аккум"));
+        assertEquals(List.of(4L), search("супер"));
+    }
+
+    @Test
+    void searchRequiresAllWordsTest() {
+        assertEquals(List.of(2L), search("дрель аккумулятор"));
+        assertEquals(List.of(), search("дрель момент"));
+    }
+
+    @Test
+    void searchSkipsUnavailableTest() {
+        assertEquals(List.of(), search("отвертка"));
+        itemSearchIndex.index(3L, 10L, "Отвертка", "Аккумуляторная отвертка", true);
+        assertEquals(List.of(3L), search("отвертка"));
+    }
+
+    @Test
+    void reindexReplacesWordsTest() {
+        itemSearchIndex.index(1L, 10L, "Перфоратор", "Мощный перфоратор", true);
+        assertEquals(List.of(2L), search("дрель"));
+        assertEquals(List.of(1L), search("перфоратор"));
+    }
+
+    @Test
+    void nameMatchRanksAboveDescriptionTest() {
+        itemSearchIndex.index(5L, 10L, "Набор бит", "Биты для шуруповерта", true);
+        itemSearchIndex.index(6L, 10L, "Шуруповерт", "Компактный, два аккумулятора", true);
+        assertEquals(List.of(6L, 5L), search("шуруповерт"));
+    }
+
+    @Test
+    void pagingTest() {
+        for (long id = 10; id < 40; id++) {
+            itemSearchIndex.index(id, 10L, "Лестница " + id, "Лестница", true);
+        }
+        final List<Long> all = itemSearchIndex.search("лестница", 0, 100);
+        assertEquals(30, all.size());
+        assertEquals(all.subList(0, 10), itemSearchIndex.search("лестница", 0, 10));
+        assertEquals(all.subList(10, 20), itemSearchIndex.search("лестница", 10, 10));
+        assertEquals(all.subList(25, 30), itemSearchIndex.search("лестница", 25, 10));
+        assertEquals(List.of(), itemSearchIndex.search("лестница", 30, 10));
+    }
+
+    @Test
+    void deletedOwnerItemsAreRemovedTest() {
+        itemSearchIndex.index(5L, 20L, "Дрель ударная", "Дрель с набором сверл", true);
+        assertEquals(List.of(1L, 2L, 5L), search("дрель"));
+        itemSearchIndex.onUserDeleted(new UserDeletedEvent(10L));
+        assertEquals(List.of(5L), search("дрель"));
+        assertEquals(List.of(), search("умулятор"));
+        assertEquals(List.of(), search("момент"));
+    }
+
+    @Test
+    void filterProbesOnlyCandidatesNeededForPageTest() {
+        for (long id = 100; id < 1100; id++) {
+            itemSearchIndex.index(id, 10L, "Стремянка " + id, "Стремянка", true);
+        }
+        final List<Long> all = itemSearchIndex.search("стремянка", 0, 1000);
+        final List<Long> probed = new ArrayList<>();
+        final List<Long> everyOther = itemSearchIndex.search("стремянка", ids -> {
+            probed.addAll(ids);
+            return ids.stream().filter(id -> id % 2 == 0).collect(Collectors.toSet());
+        }, 5, 10);
+        assertEquals(all.stream().filter(id -> id % 2 == 0).skip(5).limit(10).collect(Collectors.toList()), everyOther);
+        assertEquals(all.subList(0, 32), probed);
+    }
+
+    @Test
+    void fallsBackToTrigramsTest() {
+        assertEquals(List.of(2L), search("умулятор"));
+        assertEquals(List.of(4L), search("моммент"));
+    }
+
+    @Test
+    void emptyQueryTest() {
+        assertEquals(List.of(), search(" ,. "));
+    }
+
+    private List<Long> search(String text) {
+        return itemSearchIndex.search(text, 0, 10);
+    }
+}
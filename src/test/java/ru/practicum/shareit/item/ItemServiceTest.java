@@ -6,33 +6,50 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.BookingStatus;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.exceptions.ItemNotFoundException;
 import ru.practicum.shareit.item.exceptions.WrongCommentDateException;
+import ru.practicum.shareit.item.exceptions.WrongSearchPeriodException;
 import ru.practicum.shareit.item.exceptions.WrongOwnerIdException;
 import ru.practicum.shareit.item.model.Comment;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.model.ItemSnapshot;
 import ru.practicum.shareit.item.repository.CommentRepository;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.search.ItemNameSuggester;
+import ru.practicum.shareit.item.search.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemSnapshotCache;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -49,6 +66,12 @@ public class ItemServiceTest {
     private UserService userService;
     @Mock
     private ItemRequestService itemRequestService;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemNameSuggester itemNameSuggester;
+    @Mock
+    private ItemRequestFeed itemRequestFeed;
 
     private final LocalDateTime now = LocalDateTime.now();
 
@@ -69,7 +92,9 @@ public class ItemServiceTest {
 
     @BeforeEach
     void init() {
-        itemService = new ItemServiceImpl(itemRepository, userService, itemRequestService, bookingService, commentRepository);
+        itemService = new ItemServiceImpl(itemRepository, userService, itemRequestService, bookingService, commentRepository,
+                itemSearchIndex, itemNameSuggester,
+                new ItemSnapshotCache(100, Duration.ofMinutes(1), System::nanoTime), itemRequestFeed);
     }
 
     @Test
@@ -96,11 +121,29 @@ public class ItemServiceTest {
 
     @Test
     void updateItemTest() {
+        when(itemRepository.findSnapshotById(anyLong())).thenReturn(Optional.of(ItemSnapshot.of(item)));
         when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
         when(itemRepository.save(any())).thenReturn(item);
         assertEquals(item, itemService.updateItem(item));
     }
 
+    @Test
+    void updateItemRecordsSuggestionsTest() {
+        when(itemRepository.findSnapshotById(anyLong())).thenReturn(Optional.of(ItemSnapshot.of(item)));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.save(any())).thenReturn(item);
+        itemService.updateItem(item);
+        verify(itemRequestService).recordSuggestions(item);
+    }
+
+    @Test
+    void createItemIgnoresFailedSuggestionsTest() {
+        when(userService.getUser(anyLong())).thenReturn(user);
+        when(itemRepository.save(any())).thenReturn(item);
+        doThrow(new DataIntegrityViolationException("request deleted")).when(itemRequestService).recordSuggestions(item);
+        assertEquals(item, itemService.createItem(item));
+    }
+
     @Test
     void updateItemNotExistTest() {
         assertThrows(ItemNotFoundException.class, () -> itemService.updateItem(item));
@@ -108,11 +151,36 @@ public class ItemServiceTest {
 
     @Test
     void updateItemNotOwnerExistTest() {
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findSnapshotById(anyLong())).thenReturn(Optional.of(ItemSnapshot.of(item)));
         Item wrondOwner = item.toBuilder().owner(user.toBuilder().id(123L).build()).build();
         assertThrows(WrongOwnerIdException.class, () -> itemService.updateItem(wrondOwner));
     }
 
+    @Test
+    void getSnapshotIsCachedTest() {
+        when(itemRepository.findSnapshotById(1L)).thenReturn(Optional.of(ItemSnapshot.of(item)));
+        assertEquals(ItemSnapshot.of(item), itemService.getSnapshot(1L));
+        assertEquals(ItemSnapshot.of(item), itemService.getSnapshot(1L));
+        verify(itemRepository, times(1)).findSnapshotById(1L);
+    }
+
+    @Test
+    void getSnapshotAfterUpdateTest() {
+        final Item updated = item.toBuilder().name("updated").build();
+        when(itemRepository.findSnapshotById(1L))
+                .thenReturn(Optional.of(ItemSnapshot.of(item)))
+                .thenReturn(Optional.of(ItemSnapshot.of(updated)));
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.save(any())).thenReturn(updated);
+        itemService.updateItem(updated);
+        assertEquals("updated", itemService.getSnapshot(1L).getName());
+    }
+
+    @Test
+    void getSnapshotNotExistTest() {
+        assertThrows(ItemNotFoundException.class, () -> itemService.getSnapshot(1L));
+    }
+
     @Test
     void getItemByOwnerTest() {
         when(userService.isExist(anyLong())).thenReturn(true);
@@ -129,10 +197,46 @@ public class ItemServiceTest {
 
     @Test
     void findItemsByText() {
-        when(itemRepository.findAllByDescriptionContainingIgnoreCase(anyString())).thenReturn(List.of(item));
-        when(itemRepository.findAllByNameContainingIgnoreCase(anyString())).thenReturn(List.of(item));
+        when(itemSearchIndex.search("text", 20, 10)).thenReturn(List.of(1L));
+        when(itemRepository.findAllById(any())).thenReturn(List.of(item));
         List<Item> expected = List.of(item);
-        assertEquals(expected, itemService.searchAvailableItems("text"));
+        assertEquals(expected, itemService.searchAvailableItems("text", PageRequest.of(2, 10)));
+    }
+
+    @Test
+    void findFreeItemsByTextTest() {
+        final LocalDateTime start = LocalDateTime.now().plusDays(1);
+        final LocalDateTime end = start.plusDays(1);
+        when(bookingService.findFreeItems(Set.of(1L, 2L), start, end)).thenReturn(Set.of(1L));
+        when(itemSearchIndex.search(eq("text"), any(), eq(0L), eq(10))).thenAnswer(invocation -> {
+            final UnaryOperator<Set<Long>> filter = invocation.getArgument(1);
+            return List.copyOf(filter.apply(Set.of(1L, 2L)));
+        });
+        when(itemRepository.findAllById(List.of(1L))).thenReturn(List.of(item));
+        assertEquals(List.of(item), itemService.searchAvailableItems("text", start, end, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findFreeItemsWithWrongPeriodTest() {
+        final LocalDateTime start = LocalDateTime.now();
+        assertThrows(WrongSearchPeriodException.class,
+                () -> itemService.searchAvailableItems("text", start, start, PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void findItemsByTextWithoutMatches() {
+        when(itemSearchIndex.search(anyString(), anyLong(), anyInt())).thenReturn(List.of());
+        assertEquals(List.of(), itemService.searchAvailableItems("text", PageRequest.of(0, 10)));
+        verify(itemRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void createItemIsIndexedTest() {
+        when(userService.getUser(anyLong())).thenReturn(user);
+        when(itemRepository.save(any())).thenReturn(item);
+        itemService.createItem(item);
+        verify(itemSearchIndex).index(item);
+        verify(itemNameSuggester).index(item);
     }
 
     @Test
@@ -153,7 +257,7 @@ public class ItemServiceTest {
                 .item(item)
                 .build();
 
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findSnapshotById(anyLong())).thenReturn(Optional.of(ItemSnapshot.of(item)));
         when(bookingService.getBooking(any(), anyLong())).thenReturn(booking);
         when(commentRepository.save(any())).thenReturn(comment);
         assertEquals(comment, itemService.addComment(comment));
@@ -174,7 +278,7 @@ public class ItemServiceTest {
                 .status(BookingStatus.APPROVED)
                 .item(item)
                 .build();
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.ofNullable(item));
+        when(itemRepository.findSnapshotById(anyLong())).thenReturn(Optional.of(ItemSnapshot.of(item)));
         when(bookingService.getBooking(any(), anyLong())).thenReturn(booking);
         assertThrows(WrongCommentDateException.class, () -> itemService.addComment(comment));
     }
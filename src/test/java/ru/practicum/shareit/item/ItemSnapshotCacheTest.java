@@ -0,0 +1,103 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.service.ItemSnapshotCache;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ItemSnapshotCacheTest {
+    private final AtomicLong clock = new AtomicLong();
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void readThroughTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        assertEquals(snapshot(1L), cache.get(1L, () -> load(1L)).orElseThrow());
+        assertEquals(snapshot(1L), cache.get(1L, () -> load(1L)).orElseThrow());
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    void missingItemIsNotCachedTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        assertTrue(cache.get(1L, Optional::empty).isEmpty());
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void expiresAfterTtlTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        cache.get(1L, () -> load(1L));
+        clock.addAndGet(Duration.ofSeconds(59).toNanos());
+        cache.get(1L, () -> load(1L));
+        assertEquals(1, loads.get());
+        clock.addAndGet(Duration.ofSeconds(1).toNanos());
+        cache.get(1L, () -> load(1L));
+        assertEquals(2, loads.get());
+        assertEquals(1, cache.getEvictions());
+    }
+
+    @Test
+    void evictsOldestOverMaxSizeTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        for (long id = 1; id <= 11; id++) {
+            clock.incrementAndGet();
+            final long itemId = id;
+            cache.get(itemId, () -> load(itemId));
+        }
+        assertEquals(9, cache.getSize());
+        assertEquals(2, cache.getEvictions());
+        cache.get(11L, () -> load(11L));
+        cache.get(1L, () -> load(1L));
+        assertEquals(12, loads.get());
+    }
+
+    @Test
+    void invalidateTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        cache.get(1L, () -> load(1L));
+        cache.invalidate(1L);
+        cache.get(1L, () -> load(1L));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void deletedOwnerItemsAreEvictedTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        cache.get(1L, () -> load(1L));
+        cache.get(2L, () -> Optional.of(new ItemSnapshot(2L, "item2", "description", true, 2L, null)));
+        cache.onUserDeleted(new UserDeletedEvent(1L));
+        assertEquals(1, cache.getSize());
+        cache.get(1L, Optional::empty);
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void valueLoadedDuringInvalidationIsNotCachedTest() {
+        final ItemSnapshotCache cache = new ItemSnapshotCache(10, Duration.ofMinutes(1), clock::get);
+        cache.get(1L, () -> {
+            cache.invalidate(1L);
+            return load(1L);
+        });
+        assertEquals(0, cache.getSize());
+    }
+
+    private Optional<ItemSnapshot> load(long id) {
+        loads.incrementAndGet();
+        return Optional.of(snapshot(id));
+    }
+
+    private static ItemSnapshot snapshot(long id) {
+        return new ItemSnapshot(id, "item" + id, "description", true, 1L, null);
+    }
+}
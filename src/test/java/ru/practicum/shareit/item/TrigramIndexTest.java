@@ -0,0 +1,76 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.item.search.TrigramIndex;
+
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+public class TrigramIndexTest {
+    private TrigramIndex trigramIndex;
+
+    @BeforeEach
+    void init() {
+        trigramIndex = new TrigramIndex();
+        trigramIndex.index(1L, "Drill", "Simple drill", true);
+        trigramIndex.index(2L, "Аккумуляторная дрель", "Дрель и запасной аккумулятор", true);
+        trigramIndex.index(3L, "Шуруповерт", "Работает от аккумулятора", true);
+        trigramIndex.index(4L, "Отвертка", "Аккумуляторная отвертка", false);
+    }
+
+    @Test
+    void substringTest() {
+        assertEquals(List.of(2L, 3L), search("кумул"));
+        assertEquals(List.of(3L), search("ПОВЕРТ"));
+    }
+
+    @Test
+    void substringAcrossWordsTest() {
+        assertEquals(List.of(2L), search("ная дрель"));
+    }
+
+    @Test
+    void substringMatchIsVerifiedTest() {
+        assertEquals(List.of(), search("дрель шуруповерт"));
+    }
+
+    @Test
+    void fuzzyTest() {
+        assertEquals(List.of(1L), search("drll"));
+        assertEquals(List.of(3L), search("шуруповорт"));
+    }
+
+    @Test
+    void fuzzyRequiresEveryWordTest() {
+        assertEquals(List.of(), search("drll шуруповорт"));
+    }
+
+    @Test
+    void dissimilarWordsAreNotMatchedTest() {
+        assertEquals(List.of(), search("молоток"));
+    }
+
+    @Test
+    void reindexTest() {
+        trigramIndex.index(1L, "Hammer", "Heavy hammer", true);
+        assertEquals(List.of(), search("drill"));
+        assertEquals(List.of(1L), search("amme"));
+        trigramIndex.index(4L, "Отвертка", "Аккумуляторная отвертка", true);
+        assertEquals(List.of(4L), search("тверт"));
+    }
+
+    @Test
+    void parallelIndexTest() {
+        final TrigramIndex index = new TrigramIndex();
+        LongStream.range(0, 1000).parallel()
+                .forEach(id -> index.index(id, "Лестница " + id, "Стремянка", true));
+        assertEquals(1000, index.search("стремя", 0, 2000).size());
+    }
+
+    private List<Long> search(String text) {
+        return trigramIndex.search(text, 0, 10);
+    }
+}
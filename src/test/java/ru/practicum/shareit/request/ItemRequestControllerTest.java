@@ -2,6 +2,7 @@ package ru.practicum.shareit.request;
 
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -10,14 +11,19 @@ import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.ItemMapper;
+import ru.practicum.shareit.item.dto.ItemDto;
+import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.controller.ItemRequestController;
 import ru.practicum.shareit.request.dto.ItemRequestDto;
 import ru.practicum.shareit.request.model.ItemRequest;
 import ru.practicum.shareit.request.service.ItemRequestService;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
 
@@ -28,6 +34,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = ItemRequestController.class)
@@ -41,6 +48,8 @@ public class ItemRequestControllerTest {
     private ItemRequestService itemRequestService;
     @MockBean
     private ItemRequestMapper itemRequestMapper;
+    @MockBean
+    private UserService userService;
     private ItemRequestMapper mapper = new ItemRequestMapper(new UserMapper(), new ItemMapper());
     private final ItemRequest itemRequest = ItemRequest
             .builder()
@@ -50,6 +59,11 @@ public class ItemRequestControllerTest {
             .description("testDescription")
             .build();
 
+    @BeforeEach
+    void init() {
+        when(userService.isExist(anyLong())).thenReturn(true);
+    }
+
     @Test
     void addRequestTest() throws Exception {
         when(itemRequestMapper.fromCreateRequest(anyLong(), any())).thenReturn(itemRequest);
@@ -82,6 +96,22 @@ public class ItemRequestControllerTest {
         assertEquals(objectMapper.readValue(result, ItemRequestDto.class), expected);
     }
 
+    @Test
+    void getSuggestionsTest() throws Exception {
+        final Item item = Item.builder().id(3L).name("Drill").description("Cordless").available(true)
+                .owner(User.builder().id(2L).build()).build();
+        when(itemRequestService.getSuggestions(1L, 1L)).thenReturn(List.of(item));
+        final List<ItemDto> expected = mapper.toItemDtos(List.of(item));
+        when(itemRequestMapper.toItemDtos(List.of(item))).thenReturn(expected);
+        String result = mvc.perform(get("/requests/{requestId}/suggestions", 1L)
+                        .header(USER_ID, 1))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        assertEquals(expected, List.of(objectMapper.readValue(result, ItemDto[].class)));
+    }
+
     @Test
     void getItemRequestsTest() throws Exception {
         when(itemRequestService.getByRequester(anyLong(), any())).thenReturn(List.of(itemRequest));
@@ -95,12 +125,36 @@ public class ItemRequestControllerTest {
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        verify(itemRequestService).getByRequester(1L, PageRequest.of(from / size, size, Sort.by("created").descending()));
+        verify(itemRequestService).getByRequester(1L, PageRequest.of(from / size, size,
+                Sort.by(Sort.Direction.DESC, "created", "id")));
         TypeReference<List<ItemRequestDto>> typeReference = new TypeReference<List<ItemRequestDto>>() {
         };
         assertEquals(objectMapper.readValue(result, typeReference), List.of(expected));
     }
 
+    @Test
+    void getItemRequestsByCursorTest() throws Exception {
+        final LocalDateTime created = LocalDateTime.of(2022, 10, 1, 12, 0);
+        final ItemRequest withCreated = itemRequest.toBuilder().created(created).build();
+        final SeekCursor cursor = new SeekCursor(created.plusHours(1), 5L);
+        when(itemRequestService.getByRequester(1L, cursor, 1)).thenReturn(List.of(withCreated));
+        when(itemRequestMapper.toDtoWithItems(any())).thenReturn(mapper.toDtoWithItems(withCreated));
+        mvc.perform(get("/requests/all")
+                        .param("size", "1")
+                        .param("cursor", cursor.encode())
+                        .header(USER_ID, 1))
+                .andExpect(status().isOk())
+                .andExpect(header().string(SeekCursor.NEXT_CURSOR, new SeekCursor(created, 1L).encode()));
+    }
+
+    @Test
+    void getItemRequestsWrongCursorTest() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .param("cursor", "wrong")
+                        .header(USER_ID, 1))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void getOwnerItemRequestsTest() throws Exception {
         when(itemRequestService.getByRequester(anyLong())).thenReturn(List.of(itemRequest));
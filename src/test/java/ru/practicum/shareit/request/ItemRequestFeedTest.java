@@ -0,0 +1,120 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.model.ItemSnapshot;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+import ru.practicum.shareit.user.model.UserUpdatedEvent;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemRequestFeedTest {
+    private static final LocalDateTime NOW = LocalDateTime.of(2022, 10, 1, 12, 0);
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemRepository itemRepository;
+    private ItemRequestFeed feed;
+    private final User viewer = User.builder().id(1L).name("viewer").email("viewer@mail.com").build();
+    private final User author = User.builder().id(2L).name("author").email("author@mail.com").build();
+
+    @BeforeEach
+    void init() {
+        feed = new ItemRequestFeed(itemRequestRepository, itemRepository, 3);
+    }
+
+    @Test
+    void servesNewestRequestsOfOthersTest() {
+        feed = new ItemRequestFeed(itemRequestRepository, itemRepository, 10);
+        feed.add(request(1, author, 1));
+        feed.add(request(2, viewer, 2));
+        feed.add(request(4, author, 4));
+        feed.add(request(3, author, 3));
+        assertEquals(List.of(4L, 3L, 1L), ids(feed.page(viewer.getId(), 0, 10)));
+        assertEquals(List.of(3L), ids(feed.page(viewer.getId(), 1, 1)));
+        assertEquals(List.of(1L), ids(feed.pageBefore(viewer.getId(), new SeekCursor(NOW.plusMinutes(3), 3L), 5)));
+    }
+
+    @Test
+    void fallsBackPastEvictedRequestsTest() {
+        for (int i = 1; i <= 4; i++) {
+            feed.add(request(i, author, i));
+        }
+        assertEquals(List.of(4L, 3L), ids(feed.page(viewer.getId(), 0, 2)));
+        assertEquals(Optional.empty(), feed.page(viewer.getId(), 2, 2));
+        assertEquals(Optional.empty(), feed.pageBefore(viewer.getId(), new SeekCursor(NOW.plusMinutes(2), 2L), 1));
+    }
+
+    @Test
+    void rebuildLoadsItemsTest() {
+        when(itemRequestRepository.findAllBy(any())).thenReturn(List.of(request(2, author, 2), request(1, author, 1)));
+        when(itemRepository.findSnapshotsByRequestIdIn(anyCollection()))
+                .thenReturn(List.of(new ItemSnapshot(10L, "item", "description", true, 3L, 1L)));
+        feed.rebuild();
+        final List<ItemRequest> page = feed.page(viewer.getId(), 0, 10).orElseThrow();
+        assertEquals(List.of(2L, 1L), ids(Optional.of(page)));
+        assertTrue(page.get(0).getItems().isEmpty());
+        assertEquals(10L, page.get(1).getItems().get(0).getId());
+        assertEquals(1L, page.get(1).getItems().get(0).getRequest().getId());
+    }
+
+    @Test
+    void keepsItemsAndUsersCurrentTest() {
+        feed.add(request(1, author, 1));
+        feed.putItem(new ItemSnapshot(10L, "item", "description", true, 3L, 1L));
+        feed.putItem(new ItemSnapshot(10L, "renamed", "description", false, 3L, 1L));
+        feed.putItem(new ItemSnapshot(11L, "other", "description", true, 5L, 1L));
+        feed.onUserUpdated(new UserUpdatedEvent(author.getId(), "renamed", "renamed@mail.com"));
+        ItemRequest request = feed.page(viewer.getId(), 0, 1).orElseThrow().get(0);
+        assertEquals("renamed", request.getRequester().getName());
+        assertEquals(List.of("renamed", "other"),
+                request.getItems().stream().map(item -> item.getName()).collect(Collectors.toList()));
+        feed.onUserDeleted(new UserDeletedEvent(5L));
+        request = feed.page(viewer.getId(), 0, 1).orElseThrow().get(0);
+        assertEquals(1, request.getItems().size());
+        feed.onUserDeleted(new UserDeletedEvent(author.getId()));
+        assertEquals(List.of(), ids(feed.page(viewer.getId(), 0, 1)));
+    }
+
+    @Test
+    void addLoadsItemsCommittedBeforeRequestIsAddedTest() {
+        feed.putItem(new ItemSnapshot(10L, "item", "description", true, 3L, 1L));
+        when(itemRepository.findSnapshotsByRequestIdIn(List.of(1L)))
+                .thenReturn(List.of(new ItemSnapshot(10L, "item", "description", true, 3L, 1L)));
+        feed.add(request(1, author, 1));
+        final ItemRequest request = feed.page(viewer.getId(), 0, 1).orElseThrow().get(0);
+        assertEquals(List.of(10L), request.getItems().stream().map(item -> item.getId()).collect(Collectors.toList()));
+    }
+
+    private ItemRequest request(long id, User requester, int minutes) {
+        return ItemRequest.builder()
+                .id(id)
+                .description("request" + id)
+                .requester(requester)
+                .created(NOW.plusMinutes(minutes))
+                .build();
+    }
+
+    private static List<Long> ids(Optional<List<ItemRequest>> page) {
+        return page.orElseThrow().stream().map(ItemRequest::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,103 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.request.model.OpenRequestView;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
+
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemRequestMatcherTest {
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    private ItemRequestMatcher matcher;
+
+    @BeforeEach
+    void init() {
+        matcher = new ItemRequestMatcher(itemRequestRepository);
+        matcher.index(1L, 10L, "Нужна аккумуляторная дрель");
+        matcher.index(2L, 10L, "Ищу палатку на выходные");
+        matcher.index(3L, 20L, "Дрель на день");
+        matcher.index(4L, 30L, "Ищу велосипед");
+    }
+
+    @Test
+    void matchesWordFormsTest() {
+        assertEquals(List.of(1L, 3L), ids(matcher.match(40L, "Дрель", "Аккумуляторный инструмент")));
+        assertEquals(List.of(2L), ids(matcher.match(40L, "Палатка", "Четырёхместная")));
+    }
+
+    @Test
+    void skipsOwnRequestsTest() {
+        assertEquals(List.of(3L), ids(matcher.match(10L, "Дрель", "Ударная")));
+    }
+
+    @Test
+    void requiresSharedWordsTest() {
+        assertEquals(List.of(4L), ids(matcher.match(40L, "Молоток", "Ищу хозяина")));
+        assertTrue(matcher.match(40L, "", "").isEmpty());
+    }
+
+    @Test
+    void removesClosedRequestsTest() {
+        matcher.remove(3L);
+        assertEquals(List.of(1L), ids(matcher.match(40L, "Дрель", "Аккумуляторная")));
+        matcher.onUserDeleted(new UserDeletedEvent(10L));
+        assertTrue(matcher.match(40L, "Дрель", "Аккумуляторная").isEmpty());
+    }
+
+    @Test
+    void keepsBestMatchesTest() {
+        LongStream.rangeClosed(100, 120).forEach(id -> matcher.index(id, 50L, "Дрель"));
+        assertEquals(List.of(120L, 119L, 118L, 117L, 116L), ids(matcher.match(40L, "Дрель", "")));
+    }
+
+    @Test
+    void matchesNewestRequestsOfCommonWordTest() {
+        LongStream.rangeClosed(100, 400).forEach(id -> matcher.index(id, 50L, "Дрель"));
+        assertEquals(List.of(400L, 399L, 398L, 397L, 396L), ids(matcher.match(40L, "Дрель", "")));
+    }
+
+    @Test
+    void rebuildsOpenRequestsTest() {
+        when(itemRequestRepository.findAllOpen()).thenReturn(List.of(view(7L, 60L, "Нужен перфоратор")));
+        matcher = new ItemRequestMatcher(itemRequestRepository);
+        matcher.rebuild();
+        assertEquals(List.of(7L), ids(matcher.match(40L, "Перфоратор", "")));
+    }
+
+    private static List<Long> ids(List<ItemRequestMatcher.Match> matches) {
+        return matches.stream().map(ItemRequestMatcher.Match::getRequestId).collect(Collectors.toList());
+    }
+
+    private static OpenRequestView view(long id, long requesterId, String description) {
+        return new OpenRequestView() {
+            @Override
+            public long getId() {
+                return id;
+            }
+
+            @Override
+            public String getDescription() {
+                return description;
+            }
+
+            @Override
+            public long getRequesterId() {
+                return requesterId;
+            }
+        };
+    }
+}
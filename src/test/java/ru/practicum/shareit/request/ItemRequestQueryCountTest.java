@@ -0,0 +1,197 @@
+package ru.practicum.shareit.request;
+
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.common.SeekCursor;
+import ru.practicum.shareit.item.model.Comment;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.CommentRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.principal.SharerUser;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.time.LocalDateTime;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+@Import(StatementCounter.class)
+public class ItemRequestQueryCountTest {
+    private static final int REQUESTS = 20;
+    private static final int LARGE_LISTING = 60;
+    private static final long MAX_STATEMENTS = 4;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private ItemRepository itemRepository;
+    @Autowired
+    private CommentRepository commentRepository;
+    @Autowired
+    private ItemRequestRepository itemRequestRepository;
+    @Autowired
+    private ItemRequestFeed itemRequestFeed;
+    private User requester;
+    private User viewer;
+
+    @BeforeAll
+    void init() {
+        requester = userRepository.save(User.builder().name("requester").email("requester@requests.com").build());
+        viewer = userRepository.save(User.builder().name("viewer").email("viewer@requests.com").build());
+        final User owner = userRepository.save(User.builder().name("owner").email("owner@requests.com").build());
+        final LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < REQUESTS; i++) {
+            final User author = userRepository.save(
+                    User.builder().name("author" + i).email(i + "author@requests.com").build()
+            );
+            final ItemRequest own = itemRequestRepository.save(ItemRequest.builder()
+                    .description("own" + i)
+                    .requester(requester)
+                    .created(now.minusMinutes(i))
+                    .build());
+            final ItemRequest other = itemRequestRepository.save(ItemRequest.builder()
+                    .description("other" + i)
+                    .requester(author)
+                    .created(now.minusMinutes(i))
+                    .build());
+            for (ItemRequest request : new ItemRequest[]{own, other}) {
+                final Item item = itemRepository.save(Item.builder()
+                        .name("item" + i)
+                        .description("description" + i)
+                        .available(true)
+                        .owner(owner)
+                        .request(request)
+                        .build());
+                commentRepository.save(Comment.builder()
+                        .item(item)
+                        .author(author)
+                        .text("comment" + i)
+                        .created(now)
+                        .build());
+            }
+        }
+        itemRequestFeed.rebuild();
+    }
+
+    @Test
+    void requestsOfRequesterInBoundedStatementsTest() throws Exception {
+        statementCounter.reset();
+        mvc.perform(get("/requests")
+                        .header(SharerUser.HEADER, requester.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(REQUESTS)))
+                .andExpect(jsonPath("$[0].requester.id").value(requester.getId()))
+                .andExpect(jsonPath("$[0].items", hasSize(1)));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void requestsOfRequesterBeyondBatchSizeInBoundedStatementsTest() throws Exception {
+        final User prolific = userRepository.save(User.builder().name("prolific").email("prolific@requests.com").build());
+        final User owner = userRepository.save(User.builder().name("answerer").email("answerer@requests.com").build());
+        final LocalDateTime longAgo = LocalDateTime.now().minusYears(1);
+        for (int i = 0; i < LARGE_LISTING; i++) {
+            final ItemRequest request = itemRequestRepository.save(ItemRequest.builder()
+                    .description("old" + i)
+                    .requester(prolific)
+                    .created(longAgo.minusMinutes(i))
+                    .build());
+            itemRepository.save(Item.builder()
+                    .name("answer" + i)
+                    .description("answer" + i)
+                    .available(true)
+                    .owner(owner)
+                    .request(request)
+                    .build());
+        }
+        statementCounter.reset();
+        mvc.perform(get("/requests")
+                        .header(SharerUser.HEADER, prolific.getId()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(LARGE_LISTING)))
+                .andExpect(jsonPath("$[" + (LARGE_LISTING - 1) + "].items", hasSize(1)));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void requestsOfOthersInBoundedStatementsTest() throws Exception {
+        statementCounter.reset();
+        mvc.perform(get("/requests/all")
+                        .header(SharerUser.HEADER, viewer.getId())
+                        .param("from", "0")
+                        .param("size", String.valueOf(2 * REQUESTS)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2 * REQUESTS)))
+                .andExpect(jsonPath("$[0].requester.email").exists())
+                .andExpect(jsonPath("$[0].items", hasSize(1)));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void requestsOfOthersByCursorTest() throws Exception {
+        final String firstPage = mvc.perform(get("/requests/all")
+                        .header(SharerUser.HEADER, viewer.getId())
+                        .param("size", String.valueOf(REQUESTS))
+                        .param("cursor", ""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(REQUESTS)))
+                .andReturn()
+                .getResponse()
+                .getHeader(SeekCursor.NEXT_CURSOR);
+        statementCounter.reset();
+        mvc.perform(get("/requests/all")
+                        .header(SharerUser.HEADER, viewer.getId())
+                        .param("size", String.valueOf(REQUESTS))
+                        .param("cursor", firstPage))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(REQUESTS)))
+                .andExpect(jsonPath("$[0].description").value("other10"))
+                .andExpect(jsonPath("$[0].items", hasSize(1)));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+    }
+
+    @Test
+    void firstPagesOfOthersWithoutDatabaseTest() throws Exception {
+        mvc.perform(get("/requests/all")
+                        .header(SharerUser.HEADER, viewer.getId()))
+                .andExpect(status().isOk());
+        statementCounter.reset();
+        mvc.perform(get("/requests/all")
+                        .header(SharerUser.HEADER, viewer.getId())
+                        .param("from", "10")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(10)))
+                .andExpect(jsonPath("$[0].description").value("other5"))
+                .andExpect(jsonPath("$[0].requester.name").value("author5"))
+                .andExpect(jsonPath("$[0].items", hasSize(1)));
+        assertThat(statementCounter.count(), equalTo(0L));
+    }
+}
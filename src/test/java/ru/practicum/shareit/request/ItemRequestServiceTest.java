@@ -6,26 +6,37 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import ru.practicum.shareit.common.SeekCursor;
 import ru.practicum.shareit.item.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.request.exception.ItemRequestNotFound;
 import ru.practicum.shareit.request.exception.RequesterNotFound;
 import ru.practicum.shareit.request.model.ItemRequest;
+import ru.practicum.shareit.request.model.RequestSuggestion;
 import ru.practicum.shareit.request.repository.ItemRequestRepository;
+import ru.practicum.shareit.request.repository.RequestSuggestionRepository;
+import ru.practicum.shareit.request.service.ItemRequestFeed;
+import ru.practicum.shareit.request.service.ItemRequestMatcher;
 import ru.practicum.shareit.request.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 @ExtendWith(MockitoExtension.class)
@@ -36,6 +47,12 @@ public class ItemRequestServiceTest {
     private ItemRequestRepository itemRequestRepository;
     @Mock
     private UserService userService;
+    @Mock
+    private ItemRequestFeed itemRequestFeed;
+    @Mock
+    private ItemRequestMatcher itemRequestMatcher;
+    @Mock
+    private RequestSuggestionRepository requestSuggestionRepository;
     private final ItemRequestMapper itemRequestMapper = new ItemRequestMapper(new UserMapper(), new ItemMapper());
     private final User user =
             User.builder().id(1).name("user").email("user@email.com").build();
@@ -62,7 +79,8 @@ public class ItemRequestServiceTest {
 
     @BeforeEach
     void init() {
-        itemRequestService = new ItemRequestServiceImpl(userService, itemRequestRepository);
+        itemRequestService = new ItemRequestServiceImpl(userService, itemRequestRepository, itemRequestFeed,
+                itemRequestMatcher, requestSuggestionRepository);
     }
 
     @Test
@@ -94,11 +112,32 @@ public class ItemRequestServiceTest {
     //
     @Test
     void getItemRequestsTest() {
-        when(itemRequestRepository.findByRequesterIdIsNot(anyLong(), any())).thenReturn(new PageImpl<>(List.of(itemRequest)));
+        when(itemRequestRepository.findByRequesterIdIsNot(anyLong(), any())).thenReturn(new SliceImpl<>(List.of(itemRequest)));
+        when(itemRequestRepository.findWithItemsByIdIn(List.of(itemRequest.getId()))).thenReturn(List.of(itemRequest));
         when(userService.isExist(anyLong())).thenReturn(true);
         assertEquals(List.of(itemRequest), itemRequestService.getByRequester(1L, pageRequest));
     }
 
+    @Test
+    void getItemRequestsFromFeedTest() {
+        final PageRequest newestFirst = PageRequest.of(0, 10, Sort.by(Sort.Direction.DESC, "created", "id"));
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(itemRequestFeed.page(2L, 0, 10)).thenReturn(Optional.of(List.of(itemRequest)));
+        assertEquals(List.of(itemRequest), itemRequestService.getByRequester(2L, newestFirst));
+        verify(itemRequestRepository, never()).findByRequesterIdIsNot(anyLong(), any());
+    }
+
+    @Test
+    void getItemRequestsPastFeedTest() {
+        final SeekCursor cursor = new SeekCursor(LocalDateTime.now(), 5L);
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(itemRequestFeed.pageBefore(2L, cursor, 10)).thenReturn(Optional.empty());
+        when(itemRequestRepository.findByRequesterIdIsNotBefore(2L, cursor.getTimestamp(), 5L, PageRequest.of(0, 10)))
+                .thenReturn(List.of(itemRequest));
+        when(itemRequestRepository.findWithItemsByIdIn(List.of(itemRequest.getId()))).thenReturn(List.of(itemRequest));
+        assertEquals(List.of(itemRequest), itemRequestService.getByRequester(2L, cursor, 10));
+    }
+
     @Test
     void getItemRequestsUserNotExistTest() {
         assertThrows(RequesterNotFound.class, () -> itemRequestService.getByRequester(1L, pageRequest));
@@ -122,4 +161,59 @@ public class ItemRequestServiceTest {
     void getRequestRequestNotExistTest() {
         assertThrows(ItemRequestNotFound.class, () -> itemRequestService.get(1L));
     }
-}
\ No newline at end of file
+
+    @Test
+    void recordSuggestionsTest() {
+        final User owner = User.builder().id(2L).build();
+        final Item answer = item.toBuilder().owner(owner).request(itemRequest).build();
+        final ItemRequest other = ItemRequest.builder().id(5L).requester(user).build();
+        when(itemRequestMatcher.match(2L, "item", "description")).thenReturn(List.of(
+                new ItemRequestMatcher.Match(5L, 0.9), new ItemRequestMatcher.Match(1L, 0.8)
+        ));
+        when(itemRequestRepository.findIdsNotSuggestedItem(List.of(5L), answer.getId())).thenReturn(Set.of(5L));
+        when(itemRequestRepository.getReferenceById(5L)).thenReturn(other);
+        itemRequestService.recordSuggestions(answer);
+        verify(itemRequestMatcher).remove(1L);
+        verify(requestSuggestionRepository).saveAllAndFlush(argThat((List<RequestSuggestion> suggestions) ->
+                suggestions.size() == 1 && suggestions.get(0).getRequest() == other
+                        && suggestions.get(0).getItem() == answer && suggestions.get(0).getScore() == 0.9
+        ));
+    }
+
+    @Test
+    void recordSuggestionsUnavailableItemTest() {
+        itemRequestService.recordSuggestions(item.toBuilder().available(false).build());
+        verify(itemRequestMatcher, never()).match(anyLong(), any(), any());
+        verify(requestSuggestionRepository, never()).saveAllAndFlush(any());
+    }
+
+    @Test
+    void recordSuggestionsSkipsDeletedAndSuggestedRequestsTest() {
+        final Item answer = item.toBuilder().owner(User.builder().id(2L).build()).build();
+        when(itemRequestMatcher.match(2L, "item", "description")).thenReturn(List.of(
+                new ItemRequestMatcher.Match(5L, 0.9), new ItemRequestMatcher.Match(6L, 0.8)
+        ));
+        when(itemRequestRepository.findIdsNotSuggestedItem(List.of(5L, 6L), answer.getId())).thenReturn(Set.of());
+        itemRequestService.recordSuggestions(answer);
+        verify(itemRequestRepository, never()).getReferenceById(anyLong());
+        verify(requestSuggestionRepository).saveAllAndFlush(List.of());
+    }
+
+    @Test
+    void getSuggestionsTest() {
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
+        when(requestSuggestionRepository.findAllByRequestIdOrderByScoreDescIdAsc(1L)).thenReturn(
+                List.of(RequestSuggestion.builder().item(item).build())
+        );
+        assertEquals(List.of(item), itemRequestService.getSuggestions(1L, 1L));
+    }
+
+    @Test
+    void getSuggestionsOfOtherRequesterTest() {
+        when(userService.isExist(anyLong())).thenReturn(true);
+        when(itemRequestRepository.findById(1L)).thenReturn(Optional.of(itemRequest));
+        assertThrows(ItemRequestNotFound.class, () -> itemRequestService.getSuggestions(2L, 1L));
+        verify(requestSuggestionRepository, never()).findAllByRequestIdOrderByScoreDescIdAsc(anyLong());
+    }
+}
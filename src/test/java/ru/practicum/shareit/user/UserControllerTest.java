@@ -6,27 +6,43 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import ru.practicum.shareit.user.controller.UserController;
 import ru.practicum.shareit.user.dto.UserDto;
+import ru.practicum.shareit.user.dto.UserImportResultDto;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.service.UserImporter;
 import ru.practicum.shareit.user.service.UserService;
 
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = UserController.class)
+@Import(UserImporter.class)
 public class UserControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
@@ -111,19 +127,122 @@ public class UserControllerTest {
 
     @Test
     void getAllUsersTest() throws Exception {
-        when(userService.getAllUsers()).thenReturn(List.of(user));
+        doAnswer(invocation -> {
+            invocation.<Consumer<User>>getArgument(1).accept(user);
+            return null;
+        }).when(userService).forEachUser(eq(0L), any());
         final UserDto expected = mapper.toDto(user);
         when(userMapper.toDto(any())).thenReturn(expected);
         final List<UserDto> expectedList = List.of(expected);
-        String result = mvc.perform(get("/users")
+        final MvcResult asyncResult = mvc.perform(get("/users")
                         .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String result = mvc.perform(asyncDispatch(asyncResult))
                 .andExpect(status().isOk())
                 .andReturn()
                 .getResponse()
                 .getContentAsString();
-        verify(userService).getAllUsers();
+        verify(userService).forEachUser(eq(0L), any());
         TypeReference<List<UserDto>> typeReference = new TypeReference<List<UserDto>>() {
         };
         assertEquals(objectMapper.readValue(result, typeReference), expectedList);
     }
-}
\ No newline at end of file
+
+    @Test
+    void getUsersPageTest() throws Exception {
+        when(userService.getUsers(any(Pageable.class))).thenReturn(List.of(user));
+        when(userMapper.toDto(any())).thenReturn(mapper.toDto(user));
+        mvc.perform(get("/users")
+                        .param("from", "20")
+                        .param("size", "10"))
+                .andExpect(status().isOk());
+        verify(userService).getUsers(PageRequest.of(2, 10, Sort.by("id")));
+    }
+
+    @Test
+    void getUsersPageWithoutSizeTest() throws Exception {
+        mvc.perform(get("/users")
+                        .param("from", "20"))
+                .andExpect(status().isBadRequest());
+        mvc.perform(get("/users")
+                        .param("afterId", "5"))
+                .andExpect(status().isBadRequest());
+        verify(userService, never()).forEachUser(anyLong(), any());
+    }
+
+    @Test
+    void getUsersAfterIdTest() throws Exception {
+        when(userService.getUsersAfter(5L, 10)).thenReturn(List.of(user));
+        final UserDto expected = mapper.toDto(user);
+        when(userMapper.toDto(any())).thenReturn(expected);
+        String result = mvc.perform(get("/users")
+                        .param("afterId", "5")
+                        .param("size", "10"))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        TypeReference<List<UserDto>> typeReference = new TypeReference<List<UserDto>>() {
+        };
+        assertEquals(List.of(expected), objectMapper.readValue(result, typeReference));
+    }
+
+    @Test
+    void streamUsersTest() throws Exception {
+        final User other = user.toBuilder().id(2L).email("other@email.com").build();
+        doAnswer(invocation -> {
+            invocation.<Consumer<User>>getArgument(1).accept(user);
+            invocation.<Consumer<User>>getArgument(1).accept(other);
+            return null;
+        }).when(userService).forEachUser(eq(0L), any());
+        when(userMapper.toDto(any())).thenAnswer(invocation -> mapper.toDto(invocation.getArgument(0)));
+        final MvcResult asyncResult = mvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        final String[] lines = mvc.perform(asyncDispatch(asyncResult))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString()
+                .split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(mapper.toDto(user), objectMapper.readValue(lines[0], UserDto.class));
+        assertEquals(mapper.toDto(other), objectMapper.readValue(lines[1], UserDto.class));
+    }
+
+    @Test
+    void importUsersTest() throws Exception {
+        when(userMapper.fromCreateRequest(any()))
+                .thenAnswer(invocation -> mapper.fromCreateRequest(invocation.getArgument(0)));
+        when(userService.importUsers(any(), any())).thenAnswer(invocation -> {
+            final List<User> users = invocation.getArgument(0);
+            assertEquals(2, users.size());
+            invocation.<BiConsumer<Integer, String>>getArgument(1).accept(1, "User with email taken@email.com already exist");
+            return 1;
+        });
+        final String body = String.join("\n",
+                "{\"name\":\"first\",\"email\":\"first@email.com\"}",
+                "{\"name\":\"second\",\"email\":\"taken@email.com\"}",
+                "",
+                "{\"name\":",
+                "{\"name\":\"third\",\"email\":\"not an email\"}",
+                "{\"email\":\"fourth@email.com\"}"
+        );
+        String result = mvc.perform(post("/users/bulk")
+                        .contentType(UserController.APPLICATION_NDJSON_VALUE)
+                        .content(body))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+        final UserImportResultDto importResult = objectMapper.readValue(result, UserImportResultDto.class);
+        assertEquals(5, importResult.getReceived());
+        assertEquals(1, importResult.getCreated());
+        assertEquals(4, importResult.getRejected());
+        assertEquals(List.of(4L, 5L, 6L, 2L), importResult.getErrors().stream()
+                .map(UserImportResultDto.LineError::getLine)
+                .collect(Collectors.toList()));
+        assertEquals("Name is null or blank", importResult.getErrors().get(2).getMessage());
+    }
+}
@@ -0,0 +1,59 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.jdbc.EmbeddedDatabaseConnection;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.StatementCounter;
+import ru.practicum.shareit.user.controller.UserController;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@AutoConfigureTestDatabase(connection = EmbeddedDatabaseConnection.H2)
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
+@Import(StatementCounter.class)
+public class UserImportQueryCountTest {
+    private static final int USERS = 120;
+    private static final long MAX_STATEMENTS = 10;
+    @Autowired
+    private MockMvc mvc;
+    @Autowired
+    private StatementCounter statementCounter;
+    @Autowired
+    private UserRepository userRepository;
+
+    @Test
+    void importIsBatched() throws Exception {
+        final List<String> lines = new ArrayList<>();
+        for (int i = 0; i < USERS; i++) {
+            lines.add(String.format("{\"name\":\"user%d\",\"email\":\"user%d@import.com\"}", i, i));
+        }
+        lines.add("{\"name\":\"again\",\"email\":\"USER0@import.com\"}");
+        statementCounter.reset();
+        mvc.perform(post("/users/bulk")
+                        .contentType(UserController.APPLICATION_NDJSON_VALUE)
+                        .content(String.join("\n", lines)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.created").value(USERS))
+                .andExpect(jsonPath("$.rejected").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(USERS + 1));
+        assertThat(statementCounter.count(), lessThanOrEqualTo(MAX_STATEMENTS));
+        assertEquals(USERS, userRepository.count());
+    }
+}
@@ -6,16 +6,24 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
 import ru.practicum.shareit.user.exceptions.ConflictUserEmailException;
 import ru.practicum.shareit.user.exceptions.UserNotFoundException;
 import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.model.UserDeletedEvent;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserEmailIndex;
+import ru.practicum.shareit.user.service.UserIdRegistry;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
@@ -32,6 +40,9 @@ public class UserServiceTest {
     private UserServiceImpl userService;
     @Mock
     private UserRepository userRepository;
+    private UserIdRegistry userIdRegistry;
+    private UserEmailIndex userEmailIndex;
+    private final List<Object> events = new ArrayList<>();
     private final User user = User.builder()
             .id(1L)
             .name("user")
@@ -45,7 +56,9 @@ public class UserServiceTest {
 
     @BeforeEach
     void set() {
-        userService = new UserServiceImpl(userRepository);
+        userIdRegistry = new UserIdRegistry(userRepository);
+        userEmailIndex = new UserEmailIndex(userRepository);
+        userService = new UserServiceImpl(userRepository, userIdRegistry, userEmailIndex, events::add);
     }
 
     @Test
@@ -54,6 +67,32 @@ public class UserServiceTest {
         assertEquals(user, userService.createUser(user));
     }
 
+    @Test
+    void importUsersTest() {
+        userEmailIndex.bind(userEmailIndex.reserve("taken@user.com", 0), 7L);
+        final List<User> users = List.of(
+                User.builder().name("first").email("first@user.com").build(),
+                User.builder().name("taken").email("Taken@user.com").build(),
+                User.builder().name("twice").email("first@user.com").build(),
+                User.builder().name("second").email("second@user.com").build()
+        );
+        when(userRepository.saveAll(any())).thenAnswer(invocation -> {
+            final List<User> accepted = invocation.getArgument(0);
+            final List<User> saved = new ArrayList<>();
+            for (int i = 0; i < accepted.size(); i++) {
+                saved.add(accepted.get(i).toBuilder().id(100L + i).build());
+            }
+            return saved;
+        });
+        final List<Integer> rejected = new ArrayList<>();
+        assertEquals(2, userService.importUsers(users, (index, message) -> rejected.add(index)));
+        assertEquals(List.of(1, 2), rejected);
+        assertTrue(userService.isExist(100L));
+        assertTrue(userService.isExist(101L));
+        assertThrows(ConflictUserEmailException.class, () -> userEmailIndex.reserve("second@user.com", 0));
+        assertEquals(101L, userEmailIndex.reserve("second@user.com", 101L).getUserId());
+    }
+
     @Test
     void updateUserTest() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
@@ -61,11 +100,32 @@ public class UserServiceTest {
         assertEquals(newUser, userService.updateUser(user));
     }
 
+    @Test
+    void createUserConflictTest() {
+        when(userRepository.save(any())).thenReturn(user);
+        userService.createUser(user);
+        final User sameEmail = User.builder().name("other").email(" USER@user.com").build();
+        assertThrows(ConflictUserEmailException.class, () -> userService.createUser(sameEmail));
+        verify(userRepository, times(1)).save(any());
+    }
+
     @Test
     void updateUserConflict() {
         when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
-        when(userRepository.getUserByEmail(any())).thenReturn(Optional.of(user.toBuilder().id(123L).build()));
-        assertThrows(ConflictUserEmailException.class, () -> userService.updateUser(user));
+        userEmailIndex.bind(userEmailIndex.reserve(newUser.getEmail(), 0), 123L);
+        final User update = user.toBuilder().email(newUser.getEmail()).build();
+        assertThrows(ConflictUserEmailException.class, () -> userService.updateUser(update));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    void updateUserReleasesPreviousEmailTest() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user.toBuilder().build()));
+        when(userRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        userEmailIndex.bind(userEmailIndex.reserve(user.getEmail(), 0), 1L);
+        userService.updateUser(user.toBuilder().email(newUser.getEmail()).build());
+        assertEquals(5L, userEmailIndex.reserve(user.getEmail(), 5L).getUserId());
+        assertThrows(ConflictUserEmailException.class, () -> userEmailIndex.reserve(newUser.getEmail(), 5L));
     }
 
     @Test
@@ -80,6 +140,15 @@ public class UserServiceTest {
         when(userRepository.findById(eq(1L))).thenReturn(Optional.ofNullable(user));
         assertEquals(user, userService.deleteUser(1L));
         verify(userRepository, times(1)).delete(user);
+        assertEquals(List.of(new UserDeletedEvent(1L)), events);
+    }
+
+    @Test
+    void deleteUserReleasesEmailTest() {
+        when(userRepository.findById(eq(1L))).thenReturn(Optional.ofNullable(user));
+        userEmailIndex.bind(userEmailIndex.reserve(user.getEmail(), 0), 1L);
+        userService.deleteUser(1L);
+        userEmailIndex.reserve(user.getEmail(), 0);
     }
 
     @Test
@@ -101,16 +170,76 @@ public class UserServiceTest {
     }
 
     @Test
-    void getAllUsers() {
+    void getUsers() {
         List<User> users = List.of(user, newUser);
-        when(userRepository.findAll()).thenReturn(users);
-        assertEquals(2, userService.getAllUsers().size());
+        when(userRepository.findAllBy(any())).thenReturn(users);
+        assertEquals(2, userService.getUsers(PageRequest.of(0, 10)).size());
+    }
+
+    @Test
+    void forEachUserClosesStreamTest() {
+        final AtomicBoolean closed = new AtomicBoolean();
+        when(userRepository.streamAllByIdGreaterThan(0L))
+                .thenReturn(Stream.of(user, newUser).onClose(() -> closed.set(true)));
+        final List<User> consumed = new ArrayList<>();
+        userService.forEachUser(0L, consumed::add);
+        assertEquals(List.of(user, newUser), consumed);
+        assertTrue(closed.get());
     }
 
     @Test
     void isExist() {
         when(userRepository.existsById(eq(1L))).thenReturn(true);
         assertTrue(userService.isExist(1L));
+        assertTrue(userService.isExist(1L));
+        verify(userRepository, times(1)).existsById(1L);
+    }
+
+    @Test
+    void isExistForCreatedUserTest() {
+        when(userRepository.save(any())).thenReturn(user);
+        userService.createUser(user);
+        assertTrue(userService.isExist(1L));
+        verify(userRepository, never()).existsById(anyLong());
+    }
+
+    @Test
+    void isNotExistAfterDeleteTest() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.ofNullable(user));
+        userIdRegistry.add(1L);
+        userService.deleteUser(1L);
+        assertFalse(userService.isExist(1L));
+        verify(userRepository).existsById(1L);
+    }
+
+    @Test
+    void isExistDoesNotRestoreUserRemovedDuringLookupTest() {
+        when(userRepository.existsById(1L)).thenAnswer(invocation -> {
+            userIdRegistry.remove(1L);
+            return true;
+        });
+        assertTrue(userService.isExist(1L));
+        assertFalse(userIdRegistry.contains(1L));
+    }
+
+    @Test
+    void registryTest() {
+        final UserIdRegistry registry = new UserIdRegistry(userRepository);
+        registry.add(0L);
+        registry.add(63L);
+        registry.add(64L);
+        registry.add(1_000_000L);
+        assertTrue(registry.contains(0L));
+        assertTrue(registry.contains(63L));
+        assertTrue(registry.contains(64L));
+        assertTrue(registry.contains(1_000_000L));
+        assertFalse(registry.contains(1L));
+        assertFalse(registry.contains(999_999L));
+        assertFalse(registry.contains(-1L));
+        assertFalse(registry.contains(Long.MAX_VALUE));
+        registry.remove(63L);
+        assertFalse(registry.contains(63L));
+        assertTrue(registry.contains(64L));
     }
 }
 